@@ -0,0 +1,64 @@
+import java.lang.management.ManagementFactory;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * AllocationCheck class, checks that a steady state World update allocates
+ * nothing. A mining scenario is run headless until it settles, then the
+ * bytes allocated by the updating thread over a window of updates are
+ * counted. Exits with a failure status if any were allocated, so it can be
+ * run as a check.
+ *
+ * Usage: java AllocationCheck [engineers] [ticks]
+ */
+public class AllocationCheck {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Default number of engineers in the scenario */
+	private static final int DEFAULT_ENGINEERS = 200;
+	/** Default number of updates counted */
+	private static final int DEFAULT_TICKS = 20000;
+	/** Number of updates run first, to let the scenario and JIT settle */
+	private static final int WARMUP_TICKS = 20000;
+
+	/** The thread bean, which can count the bytes allocated by a thread */
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/*------------------------ AllocationCheck Methods -----------------------*/
+	/** Allocated bytes getter.
+	 * @return long total bytes allocated by the current thread so far.
+	 */
+	public static long allocatedBytes() {
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/** Start-up method. Runs the check and reports the result.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws SlickException {
+		int engineers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENGINEERS;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TICKS;
+
+		World world = new Benchmark(engineers, 20, 2, 20, 1, 0, 0, 0, 0).createScenario();
+		GameInput input = new HeadlessInput();
+		for (int i = 0; i < WARMUP_TICKS; i++) {
+			world.update(input, FixedStepClock.STEP);
+		}
+
+		long start = allocatedBytes();
+		for (int i = 0; i < ticks; i++) {
+			world.update(input, FixedStepClock.STEP);
+		}
+		long allocated = allocatedBytes() - start;
+
+		System.out.printf("%d bytes allocated over %d ticks (%.2f bytes/tick)%n",
+				allocated, ticks, (double) allocated / ticks);
+		if (allocated > 0) {
+			System.exit(1);
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -3,12 +3,17 @@
  * by Eleanor McMurtry, University of Melbourne
  */
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
 import org.newdawn.slick.AppGameContainer;
 import org.newdawn.slick.BasicGame;
 import org.newdawn.slick.GameContainer;
 import org.newdawn.slick.Graphics;
-import org.newdawn.slick.SlickException;
 import org.newdawn.slick.Input;
+import org.newdawn.slick.SlickException;
 
 /**
  * Main class for the game.
@@ -21,8 +26,24 @@ public class App extends BasicGame {
     public static final int WINDOW_WIDTH = 1024;
     /** window height, in pixels */
     public static final int WINDOW_HEIGHT = 768;
+    /** milliseconds of game time between autosaves */
+    public static final int AUTOSAVE_INTERVAL = 30000;
+    /** key toggling the profiler overlay */
+    public static final int PROFILER_KEY = Input.KEY_F3;
+    /** key writing the profiler's phase times as CSV */
+    public static final int PROFILER_CSV_KEY = Input.KEY_F4;
+
+    /** save file to start from, or null for a new game */
+    private static String savePath;
 
     private World world;
+    private GameInput input;
+    /** records the input of every tick, or null if the log cannot be written */
+    private InputRecorder recorder;
+    private FixedStepClock clock = new FixedStepClock();
+    private Autosaver autosaver = new Autosaver(Autosaver.SAVE_NAME);
+    /** milliseconds of game time since the last autosave */
+    private int sinceAutosave = 0;
 
     public App() {
         super("Shadow Build");
@@ -31,19 +52,85 @@ public class App extends BasicGame {
     @Override
     public void init(GameContainer gc)
             throws SlickException {
-        world = new World();
+        if (savePath != null) {
+            world = Snapshot.restore(savePath, new SlickGameMap(World.MAP_NAME),
+                    TextureAtlas.loader());
+        } else {
+            world = new World();
+        }
+        input = new SlickGameInput(gc.getInput());
+        try {
+            //keep the save started from, as autosaves may overwrite it
+            String start = World.CSV_NAME;
+            if (savePath != null) {
+                start = InputRecorder.LOG_NAME + ".sav";
+                Files.copy(Paths.get(savePath), Paths.get(start),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            recorder = new InputRecorder(input, InputRecorder.LOG_NAME,
+                    World.MAP_NAME, start, savePath != null);
+            //the World exits directly on escape, so close the log on exit
+            final InputRecorder log = recorder;
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    log.close();
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        try {
+            final StateRecorder states = new StateRecorder(
+                    StateRecorder.FILE_NAME, StateRecorder.DEFAULT_MINUTES);
+            world.setStateRecorder(states);
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    states.close();
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
-    /** Update the game state for a frame.
+    /** Update the game state for a frame. The frame time is paid out as
+     * whole fixed length ticks, so the simulation runs at the same rate
+     * however fast frames are, and the input of each is recorded. The world
+     * is autosaved in the background every AUTOSAVE_INTERVAL of game time.
+     * The profiler keys are read here rather than by the World, as they do
+     * not change the game and are not recorded.
      * @param gc The Slick game container object.
      * @param delta Time passed since last frame (milliseconds).
      */
     @Override
     public void update(GameContainer gc, int delta)
             throws SlickException {
-        // Get data about the current input (keyboard state).
-        Input input = gc.getInput();
-        world.update(input, delta);
+        if (gc.getInput().isKeyPressed(PROFILER_KEY)) {
+            world.getProfiler().toggleOverlay();
+        }
+        if (gc.getInput().isKeyPressed(PROFILER_CSV_KEY)) {
+            try {
+                world.getProfiler().writeCsv(TickProfiler.CSV_NAME);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        int steps = clock.advance(delta);
+        for (int i = 0; i < steps; i++) {
+            if (recorder != null) {
+                recorder.poll(world, FixedStepClock.STEP);
+                world.update(recorder, FixedStepClock.STEP);
+            } else {
+                world.update(input, FixedStepClock.STEP);
+            }
+            sinceAutosave += FixedStepClock.STEP;
+        }
+        if (sinceAutosave >= AUTOSAVE_INTERVAL) {
+            autosaver.checkpoint(world);
+            sinceAutosave = 0;
+        }
     }
 
     /** Render the entire screen, so it reflects the current game state.
@@ -52,14 +139,31 @@ public class App extends BasicGame {
      */
     public void render(GameContainer gc, Graphics g)
             throws SlickException {
-        world.render(g);
+        world.render(g, clock.getAlpha());
+    }
+
+    /** Saves the world in full before the window closes, waiting for the
+     * write to finish.
+     * @return boolean, true to let the window close.
+     */
+    @Override
+    public boolean closeRequested() {
+        if (world != null) {
+            autosaver.save(world);
+        }
+        autosaver.close();
+        return true;
     }
 
     /** Start-up method. Creates the game and runs it.
-     * @param args Command-line arguments (ignored).
+     * @param args Command-line arguments, optionally the path of a save file
+     * to continue from, such as the autosave.
      */
     public static void main(String[] args)
             throws SlickException {
+        if (args.length > 0) {
+            savePath = args[0];
+        }
         AppGameContainer app = new AppGameContainer(new App());
         app.setShowFPS(false);
         app.setDisplayMode(WINDOW_WIDTH, WINDOW_HEIGHT, false);
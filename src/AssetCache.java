@@ -0,0 +1,147 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * AssetCache class, decodes each image once and shares it between every
+ * Sprite that draws it, keyed by path. Sprites acquire the image they draw
+ * and release it once destroyed, so the cache knows how many of each image
+ * are in use. Unused images stay loaded, so that spawning another Sprite of
+ * the same type costs no file I/O, until purge is called.
+ */
+public class AssetCache {
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Loader used to decode images the first time they are needed */
+	private final ImageLoader loader;
+	/** Every image loaded, keyed by path */
+	private final HashMap<String, Entry> entries = new HashMap<>();
+
+	/*------------------------- AssetCache Methods ---------------------------*/
+	/** AssetCache Constructor.
+	 * @param loader, the loader to decode images with.
+	 */
+	public AssetCache(ImageLoader loader) {
+		this.loader = loader;
+	}
+
+	/** Gets an image, loading it if it has not been already. Used for
+	 * images shared by a whole class, which are pinned and never purged.
+	 * @param path, the path of the image file.
+	 * @return GameImage shared by everything drawing it.
+	 */
+	public GameImage get(String path) throws SlickException {
+		Entry entry = entry(path);
+		entry.pinned = true;
+		return entry.image;
+	}
+
+	/** Gets an image for a Sprite to draw, counting the reference.
+	 * @param path, the path of the image file.
+	 * @return GameImage shared by everything drawing it.
+	 */
+	public GameImage acquire(String path) throws SlickException {
+		Entry entry = entry(path);
+		entry.references++;
+		return entry.image;
+	}
+
+	/** Releases a reference taken by acquire.
+	 * @param path, the path of the image file.
+	 */
+	public void release(String path) {
+		Entry entry = entries.get(path);
+		if (entry != null && entry.references > 0) {
+			entry.references--;
+		}
+	}
+
+	/** Finishes any batched drawing by the loader, called by the World once
+	 * every Sprite has been drawn.
+	 */
+	public void flush() {
+		loader.flush();
+	}
+
+	/** Destroys every image with no references left that is not pinned,
+	 * freeing its texture.
+	 */
+	public void purge() {
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (entry.references == 0 && !entry.pinned) {
+				try {
+					entry.image.destroy();
+				} catch (SlickException e) {
+					e.printStackTrace();
+				}
+				it.remove();
+			}
+		}
+	}
+
+	/** Texture memory getter.
+	 * @return long bytes of texture memory held by every image loaded.
+	 */
+	public long getTextureBytes() {
+		long total = 0;
+		for (Entry entry : entries.values()) {
+			total += entry.image.getTextureBytes();
+		}
+		return total;
+	}
+
+	/** Builds a report of every image loaded, its references and texture
+	 * memory, and the totals.
+	 * @return String report, one line per image.
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<String, Entry> e : entries.entrySet()) {
+			report.append(String.format("%-45s %6d refs %8.1f KiB%n", e.getKey(),
+					e.getValue().references,
+					e.getValue().image.getTextureBytes() / 1024.0));
+		}
+		report.append(String.format("%d images, %.1f KiB of texture memory%n",
+				entries.size(), getTextureBytes() / 1024.0));
+		return report.toString();
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Finds the entry of an image, loading it if needed.
+	 * @param path, the path of the image file.
+	 * @return Entry holding the image.
+	 */
+	private Entry entry(String path) throws SlickException {
+		Entry entry = entries.get(path);
+		if (entry == null) {
+			entry = new Entry(loader.load(path));
+			entries.put(path, entry);
+		}
+		return entry;
+	}
+
+	/*---------------------------- Helper Types ------------------------------*/
+	/** A loaded image and the number of Sprites drawing it. */
+	private static class Entry {
+		/** The decoded image */
+		final GameImage image;
+		/** Number of Sprites that have acquired the image */
+		int references;
+		/** Whether the image is shared by a whole class, and kept loaded */
+		boolean pinned;
+
+		/** Entry Constructor.
+		 * @param image, the decoded image.
+		 */
+		Entry(GameImage image) {
+			this.image = image;
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,131 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+/**
+ * AtlasBuilder class, a build step that packs every unit, building,
+ * resource and highlight image into a single texture atlas, so the game can
+ * draw all of its Sprites from one texture. Images are packed onto shelves,
+ * tallest first, with a gutter between them so that filtering does not
+ * bleed neighbours into each other. Writes the sheet as a PNG and an index
+ * of where each image went, one "path,x,y,width,height" line per image.
+ *
+ * Usage: java AtlasBuilder [sheet] [index]
+ */
+public class AtlasBuilder {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Folders whose images are packed */
+	private static final String[] FOLDERS = {"assets/units", "assets/buildings",
+			"assets/resources"};
+	/** Single images that are packed */
+	private static final String[] FILES = {Selectable.HIGHLIGHT,
+			Selectable.HIGHLIGHT_L};
+	/** Pixels left empty between images */
+	private static final int GUTTER = 2;
+
+	/*------------------------- AtlasBuilder Methods -------------------------*/
+	/** Start-up method. Packs the images and writes the atlas.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws IOException {
+		String sheet = args.length > 0 ? args[0] : TextureAtlas.SHEET;
+		String index = args.length > 1 ? args[1] : TextureAtlas.INDEX;
+
+		//Collect every image, tallest first
+		ArrayList<String> paths = new ArrayList<>();
+		for (String folder : FOLDERS) {
+			File[] files = new File(folder).listFiles();
+			if (files == null) {
+				throw new IOException("Missing folder " + folder);
+			}
+			Arrays.sort(files);
+			for (File f : files) {
+				if (f.getName().endsWith(".png")) {
+					paths.add(folder + "/" + f.getName());
+				}
+			}
+		}
+		for (String file : FILES) {
+			paths.add(file);
+		}
+		ArrayList<BufferedImage> images = new ArrayList<>();
+		for (String path : paths) {
+			images.add(ImageIO.read(new File(path)));
+		}
+		sortByHeight(paths, images);
+
+		//Find the smallest square power of two sheet the shelves fit in
+		int size = 64;
+		int[][] places;
+		while ((places = pack(images, size)) == null) {
+			size *= 2;
+		}
+
+		BufferedImage atlas = new BufferedImage(size, size,
+				BufferedImage.TYPE_INT_ARGB);
+		try (PrintWriter writer = new PrintWriter(index)) {
+			for (int i = 0; i < images.size(); i++) {
+				BufferedImage image = images.get(i);
+				atlas.getGraphics().drawImage(image, places[i][0], places[i][1], null);
+				writer.printf("%s,%d,%d,%d,%d%n", paths.get(i), places[i][0],
+						places[i][1], image.getWidth(), image.getHeight());
+			}
+		}
+		ImageIO.write(atlas, "png", new File(sheet));
+		System.out.printf("Packed %d images into a %dx%d atlas: %s, %s%n",
+				images.size(), size, size, sheet, index);
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Packs images onto shelves across a square sheet.
+	 * @param images, the images, tallest first.
+	 * @param size, the width and height of the sheet.
+	 * @return int array of the x and y of each image, or null if they do
+	 * not fit.
+	 */
+	private static int[][] pack(ArrayList<BufferedImage> images, int size) {
+		int[][] places = new int[images.size()][];
+		int x = 0, y = 0, shelf = 0;
+		for (int i = 0; i < images.size(); i++) {
+			int w = images.get(i).getWidth();
+			int h = images.get(i).getHeight();
+			//start a new shelf when this one is full
+			if (x + w > size) {
+				x = 0;
+				y += shelf + GUTTER;
+				shelf = 0;
+			}
+			if (w > size || y + h > size) {
+				return null;
+			}
+			places[i] = new int[] {x, y};
+			x += w + GUTTER;
+			shelf = Math.max(shelf, h);
+		}
+		return places;
+	}
+
+	/** Sorts images, and their paths alongside, tallest first.
+	 * @param paths, the paths of the images.
+	 * @param images, the images.
+	 */
+	private static void sortByHeight(ArrayList<String> paths,
+			ArrayList<BufferedImage> images) {
+		for (int i = 1; i < images.size(); i++) {
+			for (int j = i; j > 0
+					&& images.get(j).getHeight() > images.get(j - 1).getHeight(); j--) {
+				images.set(j, images.set(j - 1, images.get(j)));
+				paths.set(j, paths.set(j - 1, paths.get(j)));
+			}
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
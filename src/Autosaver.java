@@ -0,0 +1,147 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autosaver class, writes Snapshots of a World to a save file on a thread
+ * of its own. The game thread only captures the snapshot; encoding it and
+ * writing it happen in the background, one checkpoint after another. The
+ * first checkpoint writes every entity, and each after it appends only the
+ * entities changed since, until MAX_DELTAS have been appended and the file
+ * is rewritten in full.
+ */
+public class Autosaver {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Default path of the save file */
+	public static final String SAVE_NAME = "autosave.sav";
+	/** Deltas appended before the file is rewritten in full */
+	private static final int MAX_DELTAS = 20;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Path of the save file */
+	private final Path path;
+	/** The thread checkpoints are written on */
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(
+			new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "autosave");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+	/** Sequence number of the last checkpoint captured */
+	private int sequence = 0;
+	/** The last snapshot written, only touched by the writer thread */
+	private Snapshot last;
+	/** Deltas appended since the file was last written in full */
+	private int deltas;
+
+	/*-------------------------- Autosaver Methods ---------------------------*/
+	/** Autosaver Constructor.
+	 * @param path, the path of the save file.
+	 */
+	public Autosaver(String path) {
+		this.path = Paths.get(path);
+	}
+
+	/** Captures the World and queues the checkpoint to be written, as a
+	 * delta if the file has a full record to build on.
+	 * @param world, the World to save, between updates.
+	 */
+	public void checkpoint(World world) {
+		queue(Snapshot.capture(world, ++sequence), false);
+	}
+
+	/** Captures the World and queues it to be written in full.
+	 * @param world, the World to save, between updates.
+	 */
+	public void save(World world) {
+		queue(Snapshot.capture(world, ++sequence), true);
+	}
+
+	/** Waits for every queued checkpoint to be written, then stops the
+	 * writer thread.
+	 */
+	public void close() {
+		writer.shutdown();
+		try {
+			writer.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Queues a snapshot to be written on the writer thread.
+	 * @param capture, the snapshot.
+	 * @param full, whether to rewrite the file in full.
+	 */
+	private void queue(final Snapshot capture, final boolean full) {
+		writer.execute(new Runnable() {
+			@Override
+			public void run() {
+				write(capture, full);
+			}
+		});
+	}
+
+	/** Writes a snapshot, replacing the file with a full record or
+	 * appending a delta. If the write fails, the next is made in full.
+	 * @param capture, the snapshot.
+	 * @param full, whether to rewrite the file in full.
+	 */
+	private void write(Snapshot capture, boolean full) {
+		try {
+			if (full || last == null || deltas >= MAX_DELTAS) {
+				writeFull(capture);
+				deltas = 0;
+			} else {
+				byte[] record = capture.encode(last);
+				try (OutputStream out = new FileOutputStream(path.toFile(), true)) {
+					out.write(record);
+				}
+				deltas++;
+			}
+			last = capture;
+		} catch (IOException e) {
+			e.printStackTrace();
+			last = null;
+		}
+	}
+
+	/** Writes a file holding only a full record beside the save file, and
+	 * moves it over the save file, so a crash leaves the old file whole.
+	 * @param capture, the snapshot.
+	 */
+	private void writeFull(Snapshot capture) throws IOException {
+		byte[] record = capture.encode(null);
+		ByteBuffer header = ByteBuffer.allocate(8);
+		header.putInt(Snapshot.MAGIC).putInt(Snapshot.VERSION);
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (OutputStream out = new FileOutputStream(temp.toFile())) {
+			out.write(header.array());
+			out.write(record);
+		}
+		try {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,410 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+import org.newdawn.slick.Input;
+import org.newdawn.slick.SlickException;
+
+/**
+ * Benchmark class, a micro-benchmark suite for the simulation hot paths,
+ * run headless. Each benchmark is warmed up and then measured over a number
+ * of timed iterations, for every combination of the scenario parameters:
+ * engineers, mines (split between metal and unobtainium), command centres,
+ * pylons, and the number of threads the unit phase runs on. Results are written as JSON so that runs can be compared
+ * across commits. The tick benchmarks build the scenario afresh before
+ * every iteration and run it for a fixed number of ticks, so that each
+ * iteration measures the same workload rather than a World whose mines
+ * have been worked out by the iterations before.
+ *
+ * Usage: java Benchmark [engineers=100,1000] [mines=20] [centres=2]
+ *        [pylons=50] [threads=1] [warmup=3] [iterations=5] [time=500]
+ *        [ticks=500] [out=file.json]
+ */
+public class Benchmark {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Milliseconds of game time per tick */
+	private static final int DELTA = FixedStepClock.STEP;
+	/** Seed used to lay out every scenario, so runs are comparable */
+	private static final long SEED = 20030L;
+	/** Number of points used by the query and distance benchmarks */
+	private static final int POINTS = 1024;
+	/** Default path of the JSON results */
+	private static final String DEFAULT_OUT = "bench_output.json";
+
+	/** Sink for benchmark results, so that no work is optimised away */
+	private static volatile double sink;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Parameters of the scenario being run */
+	private final int engineers, mines, centres, pylons, threads;
+	/** Warmup and measurement iterations, and milliseconds per iteration */
+	private final int warmup, iterations, time;
+	/** Ticks run by each iteration of the tick benchmarks */
+	private final int ticks;
+	/** Random source used to lay out the scenario */
+	private final Random random = new Random(SEED);
+	/** Operations run and bytes allocated by the last iteration */
+	private long lastCount, lastAllocated;
+
+	/*--------------------------- Benchmark Methods --------------------------*/
+	/** Benchmark Constructor.
+	 * @param engineers, number of engineers in the scenario.
+	 * @param mines, number of mines, half metal and half unobtainium.
+	 * @param centres, number of command centres.
+	 * @param pylons, number of pylons.
+	 * @param threads, number of threads the unit phase runs on.
+	 * @param warmup, number of warmup iterations.
+	 * @param iterations, number of measured iterations.
+	 * @param time, milliseconds per iteration.
+	 * @param ticks, ticks per iteration of the tick benchmarks.
+	 */
+	public Benchmark(int engineers, int mines, int centres, int pylons,
+			int threads, int warmup, int iterations, int time, int ticks) {
+		this.engineers = engineers;
+		this.mines = mines;
+		this.centres = centres;
+		this.pylons = pylons;
+		this.threads = threads;
+		this.warmup = warmup;
+		this.iterations = iterations;
+		this.time = time;
+		this.ticks = ticks;
+	}
+
+	/** Start-up method. Runs every benchmark for every scenario, and writes
+	 * the results to a JSON file.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws SlickException, IOException {
+		int[] engineers = {100, 1000};
+		int[] mines = {20};
+		int[] centres = {2};
+		int[] pylons = {50};
+		int[] threads = {1};
+		int warmup = 3, iterations = 5, time = 500, ticks = 500;
+		String out = DEFAULT_OUT;
+
+		for (String arg : args) {
+			String[] pair = arg.split("=", 2);
+			switch (pair[0]) {
+				case "engineers": engineers = parseList(pair[1]); break;
+				case "mines": mines = parseList(pair[1]); break;
+				case "centres": centres = parseList(pair[1]); break;
+				case "pylons": pylons = parseList(pair[1]); break;
+				case "threads": threads = parseList(pair[1]); break;
+				case "warmup": warmup = Integer.parseInt(pair[1]); break;
+				case "iterations": iterations = Integer.parseInt(pair[1]); break;
+				case "time": time = Integer.parseInt(pair[1]); break;
+				case "ticks": ticks = Integer.parseInt(pair[1]); break;
+				case "out": out = pair[1]; break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + arg);
+			}
+		}
+
+		ArrayList<String> results = new ArrayList<>();
+		for (int e : engineers) {
+			for (int m : mines) {
+				for (int c : centres) {
+					for (int p : pylons) {
+						for (int t : threads) {
+							new Benchmark(e, m, c, p, t, warmup, iterations, time,
+									ticks)
+									.runAll(results);
+						}
+					}
+				}
+			}
+		}
+
+		try (PrintWriter writer = new PrintWriter(new FileWriter(out))) {
+			writer.println("[");
+			for (int i = 0; i < results.size(); i++) {
+				writer.print("  " + results.get(i));
+				writer.println(i < results.size() - 1 ? "," : "");
+			}
+			writer.println("]");
+		}
+		System.out.println("Results written to " + out);
+	}
+
+	/** Runs every benchmark against this scenario.
+	 * @param results, list the JSON result of each benchmark is added to.
+	 */
+	private void runAll(ArrayList<String> results) throws SlickException {
+		final World world = createScenario();
+		final GameInput idle = new HeadlessInput();
+		final GameInput click = new ClickInput();
+		final float[] xs = new float[POINTS];
+		final float[] ys = new float[POINTS];
+		final Position[] positions = new Position[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			xs[i] = random.nextFloat() * world.MAPWIDTH;
+			ys[i] = random.nextFloat() * world.MAPHEIGHT;
+			positions[i] = new Position(xs[i], ys[i]);
+		}
+
+		//A separate world whose engineers are kept moving, for the integrator
+		final World moving = createScenario();
+		final ArrayList<Unit> units = moving.getUnits();
+
+		results.add(measure("tick", new TickOperation(idle)));
+		results.add(measure("tickWithSelection", new TickOperation(click)));
+		results.add(measure("queryRadius", new Operation() {
+			public void run(int i) {
+				int p = i & (POINTS - 1);
+				sink += world.queryRadius(xs[p], ys[p], Selectable.TOLERANCE).size();
+			}
+		}));
+		results.add(measure("positionDistance", new Operation() {
+			public void run(int i) {
+				int p = i & (POINTS - 1);
+				sink += Position.distance(positions[p], positions[(p + 1) & (POINTS - 1)]);
+			}
+		}));
+		if (!units.isEmpty()) {
+			results.add(measure("unitMove", new Operation() {
+				public void run(int i) {
+					Unit u = units.get(i % units.size());
+					if (!u.isMoveUnit()) {
+						int p = i & (POINTS - 1);
+						u.setDestination(xs[p], ys[p]);
+						u.setMoveUnit(true);
+					}
+					u.move(moving, 0.1f);
+				}
+			}));
+		}
+		moving.close();
+		world.close();
+	}
+
+	/*------------------------- Scenario Construction ------------------------*/
+	/** Builds a headless World for the scenario. Mines, centres and pylons
+	 * are placed at random free locations, and engineers are placed at the
+	 * mines so that they start mining straight away.
+	 * @return World laid out for the scenario.
+	 */
+	public World createScenario() throws SlickException {
+		random.setSeed(SEED);
+		World world = Headless.createWorld(World.MAP_NAME, null);
+		world.setThreads(threads);
+
+		//One tick so the world has a delta and input to hand out
+		world.update(new HeadlessInput(), DELTA);
+
+		float[] mineX = new float[Math.max(1, mines)];
+		float[] mineY = new float[Math.max(1, mines)];
+		for (int i = 0; i < centres; i++) {
+			float[] p = freePoint(world);
+			world.createSprite(World.COMMAND_CNTR, p[0], p[1]);
+		}
+		for (int i = 0; i < pylons; i++) {
+			float[] p = freePoint(world);
+			world.createSprite(World.PYLON, p[0], p[1]);
+		}
+		for (int i = 0; i < mines; i++) {
+			float[] p = freePoint(world);
+			mineX[i] = p[0];
+			mineY[i] = p[1];
+			world.createSprite(i % 2 == 0 ? World.METAL : World.UNOBTAINIUM,
+					p[0], p[1]);
+		}
+		float[] engineerX = new float[engineers];
+		float[] engineerY = new float[engineers];
+		for (int i = 0; i < engineers; i++) {
+			int m = i % mineX.length;
+			engineerX[i] = mineX[m];
+			engineerY[i] = mineY[m];
+		}
+		world.spawn(World.ENGINEER, engineerX, engineerY, engineers);
+		return world;
+	}
+
+	/** Finds a random location on the map that is not solid.
+	 * @param world, the world to search.
+	 * @return float array holding the x and y coordinates.
+	 */
+	private float[] freePoint(World world) {
+		float x, y;
+		do {
+			x = random.nextFloat() * world.MAPWIDTH;
+			y = random.nextFloat() * world.MAPHEIGHT;
+		} while (!world.isPositionFree(x, y));
+		return new float[] {x, y};
+	}
+
+	/*--------------------------- Measurement --------------------------------*/
+	/** Runs one benchmark, through its warmup and measured iterations.
+	 * @param name, the name of the benchmark.
+	 * @param op, the operation to time.
+	 * @return String JSON object describing the result.
+	 */
+	private String measure(String name, Operation op) throws SlickException {
+		for (int i = 0; i < warmup; i++) {
+			iteration(op);
+		}
+		double[] scores = new double[iterations];
+		double total = 0;
+		long count = 0, allocated = 0;
+		for (int i = 0; i < iterations; i++) {
+			scores[i] = iteration(op);
+			total += scores[i];
+			count += lastCount;
+			allocated += lastAllocated;
+		}
+		double bytesPerOp = count > 0 ? (double) allocated / count : 0;
+		double mean = total / iterations;
+		double variance = 0;
+		for (double score : scores) {
+			variance += (score - mean) * (score - mean);
+		}
+		double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+
+		System.out.printf(Locale.ROOT,
+				"%-18s engineers=%-6d mines=%-4d centres=%-3d pylons=%-4d threads=%-3d %12.1f ns/op %10.1f B/op%n",
+				name, engineers, mines, centres, pylons, threads, mean, bytesPerOp);
+
+		StringBuilder raw = new StringBuilder();
+		for (int i = 0; i < scores.length; i++) {
+			raw.append(i == 0 ? "" : ", ").append(String.format(Locale.ROOT, "%.3f", scores[i]));
+		}
+		return String.format(Locale.ROOT,
+				"{\"benchmark\": \"%s\", \"params\": {\"engineers\": %d, \"mines\": %d, "
+				+ "\"centres\": %d, \"pylons\": %d, \"threads\": %d}, \"mode\": \"avgt\", "
+				+ "\"unit\": \"ns/op\", \"score\": %.3f, \"error\": %.3f, "
+				+ "\"allocBytesPerOp\": %.3f, \"iterations\": [%s]}",
+				name, engineers, mines, centres, pylons, threads, mean, error, bytesPerOp, raw);
+	}
+
+	/** Runs an operation repeatedly for one iteration's worth of time, or
+	 * as many times as the operation asks for, recording how many times it
+	 * ran and how much it allocated. The operation is set up first and torn
+	 * down after, untimed.
+	 * @param op, the operation to time.
+	 * @return double average nanoseconds per operation.
+	 */
+	private double iteration(Operation op) throws SlickException {
+		op.setUp();
+		int runs = op.runs();
+		long budget = time * 1000000L;
+		long allocStart = AllocationCheck.allocatedBytes();
+		long start = System.nanoTime();
+		long elapsed;
+		int count = 0;
+		do {
+			op.run(count++);
+			elapsed = System.nanoTime() - start;
+		} while (runs > 0 ? count < runs : elapsed < budget);
+		lastAllocated = AllocationCheck.allocatedBytes() - allocStart;
+		lastCount = count;
+		op.tearDown();
+		return (double) elapsed / count;
+	}
+
+	/** Parses a comma separated list of integers.
+	 * @param list, the list to parse.
+	 * @return int array of the values.
+	 */
+	private static int[] parseList(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+
+	/*---------------------------- Helper Types ------------------------------*/
+	/** A single timed operation. */
+	private abstract static class Operation {
+		/** Prepares an iteration, before it is timed. Does nothing unless
+		 * overridden.
+		 */
+		void setUp() throws SlickException {
+		}
+
+		/** Cleans up after an iteration, once it is timed. Does nothing
+		 * unless overridden.
+		 */
+		void tearDown() {
+		}
+
+		/** Number of runs each iteration makes.
+		 * @return int runs per iteration, or 0 to run for the iteration time.
+		 */
+		int runs() {
+			return 0;
+		}
+
+		/** Runs the operation once.
+		 * @param i, the index of this run within the iteration.
+		 */
+		abstract void run(int i);
+	}
+
+	/** Operation ticking a World built afresh for every iteration, so that
+	 * each iteration runs the same ticks from the same start.
+	 */
+	private class TickOperation extends Operation {
+		/** Input handed to every update */
+		private final GameInput input;
+		/** World being ticked by the current iteration */
+		private World world;
+
+		/** TickOperation Constructor.
+		 * @param input, the input handed to every update.
+		 */
+		TickOperation(GameInput input) {
+			this.input = input;
+		}
+
+		@Override
+		void setUp() throws SlickException {
+			world = createScenario();
+		}
+
+		@Override
+		void tearDown() {
+			world.close();
+			world = null;
+		}
+
+		@Override
+		int runs() {
+			return ticks;
+		}
+
+		@Override
+		void run(int i) {
+			world.update(input, DELTA);
+		}
+	}
+
+	/** Input that clicks the left mouse button in the middle of the screen
+	 * on every update, so each tick runs a selection.
+	 */
+	private static class ClickInput extends HeadlessInput {
+		@Override
+		public boolean isMousePressed(int button) {
+			return button == Input.MOUSE_LEFT_BUTTON;
+		}
+
+		@Override
+		public int getMouseX() {
+			return App.WINDOW_WIDTH / 2;
+		}
+
+		@Override
+		public int getMouseY() {
+			return App.WINDOW_HEIGHT / 2;
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -1,4 +1,3 @@
-import org.newdawn.slick.Image;
 import org.newdawn.slick.SlickException;
 
 /**  
@@ -9,7 +8,7 @@ public abstract class Building extends Sprite implements Selectable {
 	
 	/* ------------------------- Static Variables ----------------------------*/
 	/** Large highlight image constant among all buildings */
-	public static Image highlight;
+	public static GameImage highlight;
 	
 	/* ------------------------- Instance Variables --------------------------*/
 	/** Generic Selectable boolean to indicate the Sprite is selected */
@@ -20,10 +19,21 @@ public abstract class Building extends Sprite implements Selectable {
      * @param x, the final x coordinate of the Building.
      * @param y, the final y coordinate of the Building.
      * @param camera, the camera which will handle it's rendered location.
+     * @param store, the store to create the Building's entity in.
+     * @param type, the EntityStore type code of the Building.
      */
-	public Building(float x, float y, Camera camera) throws SlickException {
-		super(x, y, camera);
-		Building.highlight=new Image(Selectable.HIGHLIGHT_L);
+	public Building(float x, float y, Camera camera, EntityStore store, int type)
+			throws SlickException {
+		super(x, y, camera, store, type);
+		Building.highlight=Sprite.loadImage(Selectable.HIGHLIGHT_L);
+	}
+	
+	/** Reset hook. The Building starts unselected.
+	 */
+	@Override
+	protected void reset() throws SlickException {
+		super.reset();
+		this.selected=false;
 	}
 	
 	/*---------------------- Inherited Sprite Methods ------------------------*/
@@ -37,8 +47,8 @@ public abstract class Building extends Sprite implements Selectable {
 			this.highlight();
 		}
 		
-		this.getImage().drawCentered((int)camera.globalXToScreenX(this.getPosition().getX()),
-				(int)camera.globalYToScreenY(this.getPosition().getY()));
+		this.getImage().drawCentered((int)camera.globalXToScreenX(this.getRenderX()),
+				(int)camera.globalYToScreenY(this.getRenderY()));
 	}
 	
 	/*-------------------- Implemented Selectable Methods --------------------*/
@@ -47,8 +57,8 @@ public abstract class Building extends Sprite implements Selectable {
      */
 	@Override
 	public void highlight() {
-		Building.highlight.drawCentered((int)camera.globalXToScreenX(this.getPosition().getX()),
-				(int)camera.globalYToScreenY(this.getPosition().getY()));
+		Building.highlight.drawCentered((int)camera.globalXToScreenX(this.getRenderX()),
+				(int)camera.globalYToScreenY(this.getRenderY()));
 	}
 	
     /** Implemented select method. Simply sets a boolean to let the Building
@@ -20,6 +20,10 @@ public class Camera implements Moveable {
 	private float lastTargetX,lastTargetY;
 	/** boolean that guards the use of WASD keys */
 	private boolean freeRoam=false;
+	/** camera coordinates before the last update, for interpolation */
+	private float prevCameraX, prevCameraY;
+	/** fraction of an update passed since the last one, for interpolation */
+	private float alpha=1;
 
 	/*--------------------------- Camera Methods -----------------------------*/
     /** Camera method used to lock onto a selectable target. The method itself
@@ -31,6 +35,16 @@ public class Camera implements Moveable {
 		freeRoam=false;
 	}
 	
+    /** Camera method used to stop following a Sprite about to be destroyed.
+     * The camera stays where it is.
+     * @param sprite, the Sprite being destroyed.
+     */
+	public void release(Sprite sprite) {
+		if (target==sprite) {
+			target=null;
+		}
+	}
+	
     /** Camera method used to indicate that WASD are being used to move away
      * from the previously targeted Sprite.
      */
@@ -42,7 +56,7 @@ public class Camera implements Moveable {
      * which WASD key is being pressed. 
      */
 	private void freeroam(World world) {
-		Input input = world.getInput();
+		GameInput input = world.getInput();
 		int delta = world.getDelta();
 		
 		if (input.isKeyDown(Input.KEY_W)) {
@@ -62,14 +76,18 @@ public class Camera implements Moveable {
      * @param world, to pass over input and delta if required.
      */
 	public void update(World world) {
+		//Remember where we were, for render interpolation
+		prevCameraX=cameraX;
+		prevCameraY=cameraY;
+		
 		//If WASD keys were pressed, move according to further WASD input
 		if (freeRoam) {
 			freeroam(world);
 		
-		//Otherwise, continue to track the target Sprite
-		} else {
-			this.targetX = target.getPosition().getX() - App.WINDOW_WIDTH / 2;
-			this.targetY = target.getPosition().getY() - App.WINDOW_HEIGHT / 2;
+		//Otherwise, continue to track the target Sprite, if there is one
+		} else if (target != null) {
+			this.targetX = target.getX() - App.WINDOW_WIDTH / 2;
+			this.targetY = target.getY() - App.WINDOW_HEIGHT / 2;
 		}
 		
 		//Set the camera coordinates ready to render the map at
@@ -94,21 +112,54 @@ public class Camera implements Moveable {
 	
 	/*------------------- Coordinate Translation Methods---------------------*/
     /** X translation method used by all Sprites to determine whether or not
-     * they are being rendered on the screen.
+     * they are being rendered on the screen. Uses the camera position 
+     * interpolated between the last two updates.
      * @param x, to be translated by cameraX.
      * @return translated x coordinate.
      */
 	public double globalXToScreenX(double x) {
-		return x - cameraX;
+		return x - getViewX();
 	}
 	
     /** Y translation method used by all Sprites to determine whether or not
-     * they are being rendered on the screen.
+     * they are being rendered on the screen. Uses the camera position 
+     * interpolated between the last two updates.
      * @param y, to be translated by cameraY.
      * @return translated y coordinate.
      */
 	public double globalYToScreenY(double y) {
-		return y - cameraY;
+		return y - getViewY();
+	}
+	
+    /** View x getter, the left edge of what is on screen, interpolated 
+     * between the last two updates. Used to cull Sprites that are off screen.
+     * @return float x coordinate of the left edge of the screen.
+     */
+	public float getViewX() {
+		return prevCameraX + (cameraX - prevCameraX) * alpha;
+	}
+	
+    /** View y getter, the top edge of what is on screen, interpolated 
+     * between the last two updates. Used to cull Sprites that are off screen.
+     * @return float y coordinate of the top edge of the screen.
+     */
+	public float getViewY() {
+		return prevCameraY + (cameraY - prevCameraY) * alpha;
+	}
+	
+    /** Interpolation factor setter, called by the World before rendering.
+     * @param alpha, fraction of an update passed since the last one ran.
+     */
+	public void setAlpha(float alpha) {
+		this.alpha=alpha;
+	}
+	
+    /** Interpolation factor getter, used by Sprites to interpolate their
+     * rendered positions.
+     * @return float fraction of an update passed since the last one ran.
+     */
+	public float getAlpha() {
+		return alpha;
 	}
 	
     /** X translation method used by certain Sprites that need to determine 
@@ -0,0 +1,309 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * CentreIndex class, a lookup table holding the nearest Command Centre to
+ * the middle of every tile of the map, so that finding where an Engineer
+ * should carry its cargo is a single array read however many buildings
+ * exist. The table is updated incrementally: a new centre claims only the
+ * tiles of its own cell, the part of the map nearer to it than to any other
+ * centre, and a destroyed centre's tiles are handed to the nearest of those
+ * remaining. Each row of a cell is worked out from the centres' positions,
+ * so only the cell's own tiles are visited.
+ *
+ * The table holds the nearest centre to the middle of each tile, which is
+ * not always the nearest to a point elsewhere in the tile when the tile
+ * lies on the edge of a cell. A lookup therefore weighs the centres held
+ * for the point's tile and its eight neighbours by their exact distance to
+ * the point. A centre held for none of those nine tiles can still be the
+ * nearest, but only where its cell is narrower than a tile, as at a corner
+ * where several cells meet, and the centre returned is then less than a
+ * tile farther.
+ *
+ * The table is kept in square pages of ChunkedGameMap.CHUNK_TILES tiles,
+ * each filled the first time a tile in it is looked up, so only the parts of
+ * the map Engineers work in are ever held, and only those are updated. A
+ * page may be filled by any thread of the unit phase; its contents depend
+ * only on the centres, which do not change during the phase, so a page
+ * filled twice at once is the same either way, and the first one kept wins.
+ */
+public class CentreIndex {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Slack on the edges of a cell, as a fraction of the squared size of
+	 * the map, wide enough to take in any tile float rounding could put on
+	 * either side of an edge */
+	private static final double SLACK = 1e-6;
+	/** Width and height of a page as a power of two */
+	private static final int SHIFT = ChunkedGameMap.CHUNK_SHIFT;
+	/** Width and height of a page, in tiles */
+	private static final int PAGE = 1 << SHIFT;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Width and height of the map in tiles */
+	private final int width, height;
+	/** Number of page columns */
+	private final int pageColumns;
+	/** Pages of the entity id of the nearest centre to each tile, -1 if
+	 * there are none, indexed by page column + page row * pageColumns, each
+	 * indexed by column + row * PAGE within the page, null until looked up */
+	private final AtomicReferenceArray<int[]> pages;
+	/** Every centre in the index */
+	private final ArrayList<Sprite> centres = new ArrayList<>();
+	/** Position of every centre in the index, by entity id */
+	private float[] centreX = new float[16], centreY = new float[16];
+	/** Slack on the edges of a cell, in squared pixels */
+	private final double slack;
+	/** First and last tile of the row of a cell last found by cellRow */
+	private int rowFrom, rowTo;
+
+	/*-------------------------- CentreIndex Methods -------------------------*/
+	/** CentreIndex Constructor, with no centres and no pages.
+	 * @param width, width of the map in tiles.
+	 * @param height, height of the map in tiles.
+	 */
+	public CentreIndex(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.pageColumns = (width + PAGE - 1) >> SHIFT;
+		int pageRows = (height + PAGE - 1) >> SHIFT;
+		this.pages = new AtomicReferenceArray<>(pageColumns * pageRows);
+		double w = (double) width * World.TILE_SIZE;
+		double h = (double) height * World.TILE_SIZE;
+		this.slack = SLACK * (w * w + h * h);
+	}
+
+	/** Adds a newly created centre, claiming the tiles of its cell that it
+	 * is now nearest to, in the pages held.
+	 * @param centre, the Command Centre.
+	 */
+	public void add(Sprite centre) {
+		centres.add(centre);
+		int id = centre.getId();
+		if (id >= centreX.length) {
+			centreX = Arrays.copyOf(centreX, Math.max(id + 1, centreX.length * 2));
+			centreY = Arrays.copyOf(centreY, centreX.length);
+		}
+		float cx = centreX[id] = centre.getX();
+		float cy = centreY[id] = centre.getY();
+		for (int ty = 0; ty < height; ty++) {
+			if (!rowHeld(ty) || !cellRow(centre, ty)) {
+				continue;
+			}
+			for (int tx = rowFrom; tx <= rowTo; tx++) {
+				int[] page = pages.get(pageOf(tx, ty));
+				if (page == null) {
+					continue;
+				}
+				int i = indexOf(tx, ty);
+				int current = page[i];
+				if (current < 0 || distance(tx, ty, cx, cy)
+						< distance(tx, ty, centreX[current], centreY[current])) {
+					page[i] = id;
+				}
+			}
+		}
+	}
+
+	/** Removes a centre about to be destroyed, handing each tile it was
+	 * nearest to the nearest of the centres remaining. Only the tiles of
+	 * its cell among those remaining, in the pages held, are visited.
+	 * @param centre, the Command Centre.
+	 */
+	public void remove(Sprite centre) {
+		if (!centres.remove(centre)) {
+			return;
+		}
+		int id = centre.getId();
+		for (int ty = 0; ty < height; ty++) {
+			if (!rowHeld(ty) || !cellRow(centre, ty)) {
+				continue;
+			}
+			for (int tx = rowFrom; tx <= rowTo; tx++) {
+				int[] page = pages.get(pageOf(tx, ty));
+				if (page != null && page[indexOf(tx, ty)] == id) {
+					page[indexOf(tx, ty)] = nearestTo(tx, ty);
+				}
+			}
+		}
+	}
+
+	/** Finds the nearest centre to a point, from those held for the tile
+	 * it is on and the tiles around it, filling their pages if not held.
+	 * @param x, x coordinate in pixels.
+	 * @param y, y coordinate in pixels.
+	 * @return int entity id of the nearest centre, or -1 if there is none.
+	 */
+	public int nearest(double x, double y) {
+		int tx = Math.max(0, Math.min(width - 1, (int) (x / World.TILE_SIZE)));
+		int ty = Math.max(0, Math.min(height - 1, (int) (y / World.TILE_SIZE)));
+		int nearest = tileNearest(tx, ty);
+		if (nearest < 0) {
+			return -1;
+		}
+		double best = Position.distance((float) x, (float) y,
+				centreX[nearest], centreY[nearest]);
+		for (int ny = Math.max(0, ty - 1); ny <= Math.min(height - 1, ty + 1); ny++) {
+			for (int nx = Math.max(0, tx - 1); nx <= Math.min(width - 1, tx + 1); nx++) {
+				int id = tileNearest(nx, ny);
+				if (id == nearest) {
+					continue;
+				}
+				double d = Position.distance((float) x, (float) y,
+						centreX[id], centreY[id]);
+				if (d < best) {
+					best = d;
+					nearest = id;
+				}
+			}
+		}
+		return nearest;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Finds the nearest centre to the middle of a tile, filling the tile's
+	 * page if it is not held.
+	 * @param tx, x coordinate in tiles.
+	 * @param ty, y coordinate in tiles.
+	 * @return int entity id of the nearest centre, or -1 if there is none.
+	 */
+	private int tileNearest(int tx, int ty) {
+		int p = pageOf(tx, ty);
+		int[] page = pages.get(p);
+		if (page == null) {
+			page = fillPage(p);
+			if (!pages.compareAndSet(p, null, page)) {
+				page = pages.get(p);
+			}
+		}
+		return page[indexOf(tx, ty)];
+	}
+
+	/** Finds the tiles of a row that lie in a centre's cell, give or take
+	 * the slack, from the centre's position and those of the other centres
+	 * in the index, leaving them in rowFrom and rowTo. For each other
+	 * centre, the tiles nearer the centre lie on one side of a line, so the
+	 * row's tiles in the cell are a single run.
+	 * @param centre, the Command Centre, which may or may not be in the index.
+	 * @param ty, y coordinate of the row in tiles.
+	 * @return boolean, true if the run holds any tiles.
+	 */
+	private boolean cellRow(Sprite centre, int ty) {
+		double cx = centre.getX();
+		double cy = centre.getY();
+		double py = (ty + 0.5) * World.TILE_SIZE;
+		double lo = Double.NEGATIVE_INFINITY;
+		double hi = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < centres.size(); i++) {
+			Sprite other = centres.get(i);
+			if (other == centre) {
+				continue;
+			}
+			double ox = other.getX();
+			double oy = other.getY();
+			//nearer the centre where a * px < r, px the x of a tile's middle
+			double a = 2 * (ox - cx);
+			double r = ox * ox + oy * oy - cx * cx - cy * cy
+					- 2 * py * (oy - cy) + slack;
+			if (a > 0) {
+				hi = Math.min(hi, r / a);
+			} else if (a < 0) {
+				lo = Math.max(lo, r / a);
+			} else if (r <= 0) {
+				return false;
+			}
+			if (lo > hi) {
+				return false;
+			}
+		}
+		rowFrom = (int) Math.max(0, Math.ceil(lo / World.TILE_SIZE - 0.5));
+		rowTo = (int) Math.min(width - 1, Math.floor(hi / World.TILE_SIZE - 0.5));
+		return rowFrom <= rowTo;
+	}
+
+	/** Finds the nearest centre to a tile afresh, taking the first centre
+	 * added of any that are as near, as add does.
+	 * @param tx, x coordinate in tiles.
+	 * @param ty, y coordinate in tiles.
+	 * @return int entity id of the nearest centre, or -1 if there is none.
+	 */
+	private int nearestTo(int tx, int ty) {
+		int nearest = -1;
+		float best = Float.MAX_VALUE;
+		for (int i = 0; i < centres.size(); i++) {
+			Sprite centre = centres.get(i);
+			float d = distance(tx, ty, centre.getX(), centre.getY());
+			if (d < best) {
+				best = d;
+				nearest = centre.getId();
+			}
+		}
+		return nearest;
+	}
+
+	/** Works out a page from scratch.
+	 * @param p, the index of the page.
+	 * @return int[] the page, -1 for tiles off the map.
+	 */
+	private int[] fillPage(int p) {
+		int[] page = new int[PAGE * PAGE];
+		Arrays.fill(page, -1);
+		int left = (p % pageColumns) << SHIFT;
+		int top = (p / pageColumns) << SHIFT;
+		for (int ty = top; ty < Math.min(height, top + PAGE); ty++) {
+			for (int tx = left; tx < Math.min(width, left + PAGE); tx++) {
+				page[indexOf(tx, ty)] = nearestTo(tx, ty);
+			}
+		}
+		return page;
+	}
+
+	/** Whether any page of a row of tiles is held.
+	 * @param ty, y coordinate of the row in tiles.
+	 * @return boolean, true if at least one is.
+	 */
+	private boolean rowHeld(int ty) {
+		int first = (ty >> SHIFT) * pageColumns;
+		for (int p = first; p < first + pageColumns; p++) {
+			if (pages.get(p) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** Finds the page of a tile.
+	 * @param tx, x coordinate in tiles.
+	 * @param ty, y coordinate in tiles.
+	 * @return int index of the page.
+	 */
+	private int pageOf(int tx, int ty) {
+		return (tx >> SHIFT) + (ty >> SHIFT) * pageColumns;
+	}
+
+	/** Finds a tile within its page.
+	 * @param tx, x coordinate in tiles.
+	 * @param ty, y coordinate in tiles.
+	 * @return int index of the tile in its page.
+	 */
+	private static int indexOf(int tx, int ty) {
+		return (tx & PAGE - 1) + ((ty & PAGE - 1) << SHIFT);
+	}
+
+	/** Squared distance from the middle of a tile to a point.
+	 * @param tx, x coordinate in tiles.
+	 * @param ty, y coordinate in tiles.
+	 * @param x, x coordinate of the point in pixels.
+	 * @param y, y coordinate of the point in pixels.
+	 * @return float squared distance in pixels.
+	 */
+	private static float distance(int tx, int ty, float x, float y) {
+		float dx = (tx + 0.5f) * World.TILE_SIZE - x;
+		float dy = (ty + 0.5f) * World.TILE_SIZE - y;
+		return dx * dx + dy * dy;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
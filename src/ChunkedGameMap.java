@@ -0,0 +1,415 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * ChunkedGameMap class, a GameMap whose tiles stay on disk in a chunk file
+ * mapped into memory, so a map can be far larger than one TMX file could
+ * hold. The map is split into square chunks of CHUNK_TILES tiles, each
+ * stored whole, and a chunk is only copied out of the file the first time a
+ * tile in it is read. At most a memory budget of chunks are held at once;
+ * past that, the least recently read chunk is dropped and its array reused,
+ * so paging allocates nothing once the budget is full. The World prefetches
+ * the chunks around the camera every update.
+ *
+ * Only rendering reads tiles once the World is created; the simulation runs
+ * on the PassabilityMap decoded from every tile up front, so units far from
+ * the camera move and mine as usual while their chunks are not held. Not
+ * safe to read from more than one thread.
+ *
+ * A chunk file is, big-endian: the MAGIC int, the VERSION, the width, height,
+ * layer count and CHUNK_TILES as ints, the offset of the first chunk, the
+ * tileset count, and for each tileset its first global id and the path of
+ * its TSX file relative to the chunk file, as modified UTF-8. The chunks
+ * follow, from a page aligned offset, layer by layer and row by row, each
+ * holding its tiles' global ids row by row, 0 past the edge of the map.
+ *
+ * Usage: java ChunkedGameMap [map.tmx] [map.chunks], converts a TMX map
+ */
+public class ChunkedGameMap implements GameMap {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** First four bytes of a chunk file, "SBCM" */
+	public static final int MAGIC = 0x5342434D;
+	/** Version of the file format written */
+	public static final int VERSION = 1;
+	/** Extension of chunk files */
+	public static final String EXTENSION = ".chunks";
+	/** Width and height of a chunk as a power of two, also the size of the
+	 * pages the World's per tile tables are allocated in */
+	public static final int CHUNK_SHIFT = 6;
+	/** Width and height of a chunk, in tiles */
+	public static final int CHUNK_TILES = 1 << CHUNK_SHIFT;
+	/** Default bytes of chunks held at once */
+	public static final int DEFAULT_BUDGET = 32 << 20;
+	/** Chunks held at once whatever the budget, enough to cover the screen */
+	private static final int MIN_CHUNKS = 16;
+	/** Bytes the first chunk is aligned to */
+	private static final int PAGE_SIZE = 4096;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Width and height of the map in tiles, and its number of layers */
+	private final int width, height, layers;
+	/** Width and height of a chunk in tiles, and the ints in a chunk */
+	private final int chunkTiles, chunkInts;
+	/** Number of chunk columns, and chunks in a layer */
+	private final int columns, chunksPerLayer;
+	/** Chunks in each mapped segment of the file */
+	private final int segmentChunks;
+	/** The mapped segments of the file, each a whole number of chunks */
+	private final IntBuffer[] segments;
+	/** Tilesets of the map, in order of first global id */
+	private final ArrayList<Tileset> tilesets = new ArrayList<>();
+	/** Chunk arrays held, by slot */
+	private final int[][] slots;
+	/** Chunk held in each slot, as layer * chunksPerLayer + chunk */
+	private final int[] slotChunk;
+	/** Slot holding each chunk, -1 if it is not held */
+	private final int[] chunkSlot;
+	/** Next and previous slot in order of last read, most recent first */
+	private final int[] next, previous;
+	/** Most and least recently read slots, -1 if none are used */
+	private int head = -1, tail = -1;
+	/** Number of slots used */
+	private int used = 0;
+	/** Number of chunks copied out of the file, ever */
+	private long pageIns = 0;
+
+	/*------------------------ ChunkedGameMap Methods ------------------------*/
+	/** ChunkedGameMap Constructor, maps a chunk file and reads its
+	 * tilesets. No chunks are read until their tiles are.
+	 * @param path, the path of the chunk file.
+	 * @param budget, most bytes of chunks to hold at once.
+	 */
+	public ChunkedGameMap(String path, int budget) throws SlickException {
+		File file = new File(path);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel()) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY,
+					0, Math.min(channel.size(), PAGE_SIZE));
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a chunk file");
+			}
+			if (header.getInt() != VERSION) {
+				throw new IOException("Unsupported version");
+			}
+			width = header.getInt();
+			height = header.getInt();
+			layers = header.getInt();
+			chunkTiles = header.getInt();
+			long dataStart = header.getInt();
+			int tilesetCount = header.getInt();
+			for (int i = 0; i < tilesetCount; i++) {
+				int firstGid = header.getInt();
+				byte[] utf = new byte[header.getShort() & 0xFFFF];
+				header.get(utf);
+				tilesets.add(Tileset.read(new File(file.getAbsoluteFile()
+						.getParentFile(), new String(utf, "UTF-8")), firstGid));
+			}
+
+			chunkInts = chunkTiles * chunkTiles;
+			columns = (width + chunkTiles - 1) / chunkTiles;
+			chunksPerLayer = columns * ((height + chunkTiles - 1) / chunkTiles);
+			int chunks = layers * chunksPerLayer;
+			long chunkBytes = chunkInts * 4L;
+			if (channel.size() < dataStart + chunks * chunkBytes) {
+				throw new IOException("File ends early");
+			}
+			segmentChunks = (int) (Integer.MAX_VALUE / chunkBytes);
+			segments = new IntBuffer[(chunks + segmentChunks - 1) / segmentChunks];
+			for (int i = 0; i < segments.length; i++) {
+				int count = Math.min(segmentChunks, chunks - i * segmentChunks);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						dataStart + i * segmentChunks * chunkBytes,
+						count * chunkBytes).asIntBuffer();
+			}
+
+			int capacity = Math.max(MIN_CHUNKS, (int) (budget / chunkBytes));
+			slots = new int[capacity][];
+			slotChunk = new int[capacity];
+			next = new int[capacity];
+			previous = new int[capacity];
+			chunkSlot = new int[chunks];
+			Arrays.fill(chunkSlot, -1);
+		} catch (Exception e) {
+			throw new SlickException("Failed to load map " + path, e);
+		}
+	}
+
+	/** Start-up method. Converts a TMX map to a chunk file.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws IOException, SlickException {
+		String in = args.length > 0 ? args[0] : World.MAP_NAME;
+		String out = args.length > 1 ? args[1]
+				: in.replaceAll("\\.tmx$", "") + EXTENSION;
+		TmxGameMap map = new TmxGameMap(in);
+		write(out, map, map.getLayerCount(), map.getTilesets());
+		System.out.printf("Wrote %dx%d tiles to %s%n", map.getWidth(),
+				map.getHeight(), out);
+	}
+
+	/** Writes the tiles of a map to a chunk file, a chunk at a time.
+	 * @param path, the path of the chunk file.
+	 * @param map, the map to read tiles from.
+	 * @param layers, the number of layers to write.
+	 * @param tilesets, the tilesets of the map, each read from a TSX file.
+	 */
+	public static void write(String path, GameMap map, int layers,
+			ArrayList<Tileset> tilesets) throws IOException {
+		Path base = new File(path).getAbsoluteFile().toPath().getParent();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream header = new DataOutputStream(bytes);
+		header.writeInt(MAGIC);
+		header.writeInt(VERSION);
+		header.writeInt(map.getWidth());
+		header.writeInt(map.getHeight());
+		header.writeInt(layers);
+		header.writeInt(CHUNK_TILES);
+		header.writeInt(0);
+		header.writeInt(tilesets.size());
+		for (Tileset tileset : tilesets) {
+			header.writeInt(tileset.getFirstGid());
+			header.writeUTF(base.relativize(tileset.getSource().getAbsoluteFile()
+					.toPath()).toString().replace(File.separatorChar, '/'));
+		}
+		int dataStart = (bytes.size() + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+		if (dataStart > PAGE_SIZE) {
+			throw new IOException("Too many tilesets for the header");
+		}
+		byte[] head = Arrays.copyOf(bytes.toByteArray(), dataStart);
+		head[24] = (byte) (dataStart >>> 24);
+		head[25] = (byte) (dataStart >>> 16);
+		head[26] = (byte) (dataStart >>> 8);
+		head[27] = (byte) dataStart;
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(path), 1 << 16))) {
+			out.write(head);
+			for (int layer = 0; layer < layers; layer++) {
+				for (int top = 0; top < map.getHeight(); top += CHUNK_TILES) {
+					for (int left = 0; left < map.getWidth(); left += CHUNK_TILES) {
+						for (int y = top; y < top + CHUNK_TILES; y++) {
+							for (int x = left; x < left + CHUNK_TILES; x++) {
+								out.writeInt(x < map.getWidth() && y < map.getHeight()
+										? map.getTileId(x, y, layer) : 0);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/*--------------------- Implemented GameMap Methods ----------------------*/
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/** Tile id getter, paging in the tile's chunk if it is not held.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @param layer, the index of the layer to read.
+	 * @return int global id of the tile, or 0 if there is none.
+	 */
+	@Override
+	public int getTileId(int x, int y, int layer) {
+		if (x < 0 || y < 0 || x >= width || y >= height || layer < 0
+				|| layer >= layers) {
+			return 0;
+		}
+		int slot = slotOf(layer * chunksPerLayer
+				+ y / chunkTiles * columns + x / chunkTiles);
+		return slots[slot][y % chunkTiles * chunkTiles + x % chunkTiles];
+	}
+
+	@Override
+	public String getTileProperty(int tileId, String name, String def) {
+		int tileset = tilesetOf(tileId);
+		if (tileset < 0) {
+			return def;
+		}
+		return tilesets.get(tileset).getProperty(tileId, name, def);
+	}
+
+	/** Pages in every chunk overlapping a rectangle of tiles, on every
+	 * layer, unless there are more than half the chunks the budget holds.
+	 * @param tileX, x coordinate of the top left tile, in tiles.
+	 * @param tileY, y coordinate of the top left tile, in tiles.
+	 * @param width, number of columns of tiles.
+	 * @param height, number of rows of tiles.
+	 */
+	@Override
+	public void prefetch(int tileX, int tileY, int width, int height) {
+		int firstCol = Math.max(0, tileX) / chunkTiles;
+		int firstRow = Math.max(0, tileY) / chunkTiles;
+		int lastCol = Math.min(this.width - 1, tileX + width - 1) / chunkTiles;
+		int lastRow = Math.min(this.height - 1, tileY + height - 1) / chunkTiles;
+		if (lastCol < firstCol || lastRow < firstRow || (lastCol - firstCol + 1)
+				* (lastRow - firstRow + 1) * layers > slots.length / 2) {
+			return;
+		}
+		for (int layer = 0; layer < layers; layer++) {
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int col = firstCol; col <= lastCol; col++) {
+					slotOf(layer * chunksPerLayer + row * columns + col);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void render(int x, int y) {
+		render(x, y, 0, 0, width, height);
+	}
+
+	/** Render method for part of the map, draws a rectangle of tiles with
+	 * its top left tile at x and y, layer by layer, and within each layer a
+	 * tileset at a time. Tileset images are loaded the first time they are
+	 * drawn.
+	 * @param x, screen x coordinate to draw at.
+	 * @param y, screen y coordinate to draw at.
+	 * @param tileX, x coordinate of the top left tile to draw, in tiles.
+	 * @param tileY, y coordinate of the top left tile to draw, in tiles.
+	 * @param width, number of columns of tiles to draw.
+	 * @param height, number of rows of tiles to draw.
+	 */
+	@Override
+	public void render(int x, int y, int tileX, int tileY, int width, int height) {
+		for (int layer = 0; layer < layers; layer++) {
+			for (int t = 0; t < tilesets.size(); t++) {
+				Tileset tileset = tilesets.get(t);
+				try {
+					tileset.startUse();
+				} catch (SlickException e) {
+					e.printStackTrace();
+					return;
+				}
+				for (int row = 0; row < height; row++) {
+					for (int col = 0; col < width; col++) {
+						int gid = getTileId(tileX + col, tileY + row, layer);
+						if (gid != 0 && tilesetOf(gid) == t) {
+							tileset.renderInUse(gid, x + col * World.TILE_SIZE,
+									y + row * World.TILE_SIZE);
+						}
+					}
+				}
+				tileset.endUse();
+			}
+		}
+	}
+
+	/*-------------------------- Getters & Setters ---------------------------*/
+	/** Held chunks getter.
+	 * @return int number of chunks held in memory.
+	 */
+	public int getHeldChunks() {
+		return used;
+	}
+
+	/** Page in count getter.
+	 * @return long number of chunks copied out of the file, ever.
+	 */
+	public long getPageIns() {
+		return pageIns;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Finds the slot holding a chunk, paging the chunk in if it is not
+	 * held, and marks it as the most recently read.
+	 * @param chunk, the chunk, as layer * chunksPerLayer + chunk.
+	 * @return int slot holding the chunk.
+	 */
+	private int slotOf(int chunk) {
+		int slot = chunkSlot[chunk];
+		if (slot >= 0) {
+			if (slot != head) {
+				unlink(slot);
+				pushFront(slot);
+			}
+			return slot;
+		}
+
+		//take a free slot, or drop the least recently read chunk
+		if (used < slots.length) {
+			slot = used++;
+			slots[slot] = new int[chunkInts];
+		} else {
+			slot = tail;
+			chunkSlot[slotChunk[slot]] = -1;
+			unlink(slot);
+		}
+		segments[chunk / segmentChunks].get(chunk % segmentChunks * chunkInts,
+				slots[slot]);
+		slotChunk[slot] = chunk;
+		chunkSlot[chunk] = slot;
+		pushFront(slot);
+		pageIns++;
+		return slot;
+	}
+
+	/** Takes a slot out of the order of last read.
+	 * @param slot, the slot.
+	 */
+	private void unlink(int slot) {
+		if (previous[slot] >= 0) {
+			next[previous[slot]] = next[slot];
+		} else {
+			head = next[slot];
+		}
+		if (next[slot] >= 0) {
+			previous[next[slot]] = previous[slot];
+		} else {
+			tail = previous[slot];
+		}
+	}
+
+	/** Puts a slot first in the order of last read.
+	 * @param slot, the slot.
+	 */
+	private void pushFront(int slot) {
+		previous[slot] = -1;
+		next[slot] = head;
+		if (head >= 0) {
+			previous[head] = slot;
+		}
+		head = slot;
+		if (tail < 0) {
+			tail = slot;
+		}
+	}
+
+	/** Finds the tileset a global id belongs to.
+	 * @param gid, the global id.
+	 * @return int index of the tileset, or -1 if none holds it.
+	 */
+	private int tilesetOf(int gid) {
+		for (int i = tilesets.size() - 1; i >= 0; i--) {
+			if (tilesets.get(i).contains(gid)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,129 @@
+import java.util.ArrayList;
+
+/**
+ * CommandBuffer class, records the changes a chunk of the parallel unit
+ * update wants to make to the World: Sprite creations and removals, mine
+ * depletions and resource increases. Buffers are applied one after another
+ * once every chunk has finished, so the World is never changed while it is
+ * being iterated, and the result does not depend on thread scheduling.
+ */
+public class CommandBuffer {
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Type names and coordinates of Sprites to create, in order */
+	private final ArrayList<String> createTypes = new ArrayList<>();
+	private float[] createX = new float[16], createY = new float[16];
+	/** Sprites to pass to the remove cache, in order */
+	private final ArrayList<Sprite> removals = new ArrayList<>();
+	/** Mines to deplete, and the amount to take from each, in order */
+	private final ArrayList<Resource> depleted = new ArrayList<>();
+	private int[] depletion = new int[16];
+	/** Total metal and unobtainium to add to the World */
+	private int metal, unobtainium;
+	/** Result list for proximity queries made by this chunk */
+	private final ArrayList<Sprite> scratch = new ArrayList<>();
+
+	/*------------------------ CommandBuffer Methods -------------------------*/
+	/** Records a Sprite to be created.
+	 * @param type, the type name of the Sprite.
+	 * @param x, the x coordinate to create it at.
+	 * @param y, the y coordinate to create it at.
+	 */
+	public void create(String type, float x, float y) {
+		int n = createTypes.size();
+		if (n == createX.length) {
+			createX = grow(createX);
+			createY = grow(createY);
+		}
+		createX[n] = x;
+		createY[n] = y;
+		createTypes.add(type);
+	}
+
+	/** Records a Sprite to be passed to the remove cache.
+	 * @param s, the Sprite to remove.
+	 */
+	public void remove(Sprite s) {
+		removals.add(s);
+	}
+
+	/** Records an amount to be taken from a mine.
+	 * @param r, the mine.
+	 * @param amount, the amount to take.
+	 */
+	public void deplete(Resource r, int amount) {
+		int n = depleted.size();
+		if (n == depletion.length) {
+			int[] grown = new int[n * 2];
+			System.arraycopy(depletion, 0, grown, 0, n);
+			depletion = grown;
+		}
+		depletion[n] = amount;
+		depleted.add(r);
+	}
+
+	/** Records an amount of metal or unobtainium to add to the World.
+	 * @param type, METAL or UNOBTAINIUM.
+	 * @param amount, the amount to add.
+	 */
+	public void addResource(String type, int amount) {
+		if (type.equals(World.METAL)) {
+			metal += amount;
+		} else {
+			unobtainium += amount;
+		}
+	}
+
+	/** Scratch list getter, used for this chunk's proximity queries.
+	 * @return ArrayList to fill with query results.
+	 */
+	public ArrayList<Sprite> getScratch() {
+		return scratch;
+	}
+
+	/** Applies every recorded change to the World in the order it was
+	 * recorded, then empties the buffer.
+	 * @param world, the World to change.
+	 */
+	public void apply(World world) {
+		for (int i = 0; i < depleted.size(); i++) {
+			depleted.get(i).deplete(depletion[i]);
+		}
+		world.addResources(metal, unobtainium);
+		for (int i = 0; i < createTypes.size(); i++) {
+			try {
+				world.createSprite(createTypes.get(i), createX[i], createY[i]);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		for (int i = 0; i < removals.size(); i++) {
+			world.removeSprite(removals.get(i));
+		}
+		clear();
+	}
+
+	/** Empties the buffer.
+	 */
+	public void clear() {
+		createTypes.clear();
+		removals.clear();
+		depleted.clear();
+		metal = 0;
+		unobtainium = 0;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Doubles the length of a float array.
+	 * @param from, the array to grow.
+	 * @return float array twice as long, holding the same values.
+	 */
+	private static float[] grow(float[] from) {
+		float[] to = new float[from.length * 2];
+		System.arraycopy(from, 0, to, 0, from.length);
+		return to;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,47 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * DumpEvent class, a Java Flight Recorder event for an Engineer that has
+ * dumped its cargo at a Command Centre.
+ * Only created while a recording has the event enabled, so costs nothing
+ * otherwise.
+ */
+@Name("shadowbuild.Dump")
+@Label("Engineer Dump")
+@Category("Shadow Build")
+@StackTrace(false)
+public class DumpEvent extends Event {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** The event's type, read to check whether it is enabled */
+	private static final EventType TYPE = EventType.getEventType(DumpEvent.class);
+
+	/* ------------------------- Instance Variables --------------------------*/
+	@Label("Resource")
+	private String resource;
+	@Label("Amount")
+	private int amount;
+
+	/*-------------------------- DumpEvent Methods ---------------------------*/
+	/** Commits the event, if it is enabled.
+	 * @param resource, the EntityStore type code of the cargo.
+	 * @param amount, the amount dumped, the Engineer allowance.
+	 */
+	public static void emit(int resource, int amount) {
+		if (!TYPE.isEnabled()) {
+			return;
+		}
+		DumpEvent event = new DumpEvent();
+		event.resource = EntityStore.NAMES[resource];
+		event.amount = amount;
+		event.commit();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
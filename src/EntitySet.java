@@ -0,0 +1,114 @@
+import java.util.Arrays;
+
+/**
+ * EntitySet class, a set of entity ids packed into a bitset of one bit per
+ * slot of the EntityStore. Adding and removing are single bit changes, and
+ * the set is iterated in id order, skipping 64 slots at a time where none
+ * are members, so a system can visit only the entities it cares about in
+ * the same order as a full scan would.
+ *
+ * Iterate with: for (int id = set.next(0); id >= 0; id = set.next(id + 1))
+ */
+public class EntitySet {
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The bits, id in bit id & 63 of word id >> 6 */
+	private long[] words;
+
+	/*-------------------------- EntitySet Methods ---------------------------*/
+	/** EntitySet Constructor, an empty set.
+	 * @param capacity, the number of slots to allow for.
+	 */
+	public EntitySet(int capacity) {
+		words = new long[(capacity + 63) >> 6];
+	}
+
+	/** Makes room for ids below a capacity, so that adding them never
+	 * replaces the bits. Called as the store grows, so that threads of the
+	 * unit phase can add and remove ids in chunks of their own.
+	 * @param capacity, the number of slots to allow for.
+	 */
+	public void reserve(int capacity) {
+		int length = (capacity + 63) >> 6;
+		if (length > words.length) {
+			words = Arrays.copyOf(words, length);
+		}
+	}
+
+	/** Adds an id.
+	 * @param id, the entity id.
+	 */
+	public void add(int id) {
+		int word = id >> 6;
+		if (word >= words.length) {
+			words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+		}
+		words[word] |= 1L << id;
+	}
+
+	/** Removes an id.
+	 * @param id, the entity id.
+	 */
+	public void remove(int id) {
+		int word = id >> 6;
+		if (word < words.length) {
+			words[word] &= ~(1L << id);
+		}
+	}
+
+	/** Whether an id is in the set.
+	 * @param id, the entity id.
+	 * @return boolean, true if a member.
+	 */
+	public boolean contains(int id) {
+		int word = id >> 6;
+		return word < words.length && (words[word] & 1L << id) != 0;
+	}
+
+	/** Finds the first member at or after an id.
+	 * @param from, the id to start from.
+	 * @return int id of the member, or -1 if there are no more.
+	 */
+	public int next(int from) {
+		int word = from >> 6;
+		if (word >= words.length || from < 0) {
+			return -1;
+		}
+		long bits = words[word] & -1L << from;
+		while (bits == 0) {
+			if (++word == words.length) {
+				return -1;
+			}
+			bits = words[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/** Size getter, counted from the bits.
+	 * @return int number of members.
+	 */
+	public int size() {
+		int count = 0;
+		for (int i = 0; i < words.length; i++) {
+			count += Long.bitCount(words[i]);
+		}
+		return count;
+	}
+
+	/** Counts the members also in another set, such as the busy Factories
+	 * from the Factories and the busy entities.
+	 * @param other, the other set.
+	 * @return int number of members of both.
+	 */
+	public int countAnd(EntitySet other) {
+		int count = 0;
+		int n = Math.min(words.length, other.words.length);
+		for (int i = 0; i < n; i++) {
+			count += Long.bitCount(words[i] & other.words[i]);
+		}
+		return count;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
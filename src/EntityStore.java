@@ -0,0 +1,445 @@
+/**
+ * EntityStore class, holds the state of every entity in the World in dense
+ * primitive arrays, one per component, all indexed by entity id. Sprites
+ * are thin views over a slot in the store, and the simulation systems
+ * iterate the arrays linearly. Slots of destroyed entities are reused.
+ *
+ * Every slot has a generation, advanced each time its entity is destroyed.
+ * A handle packs an id with the generation it was issued at, so that a
+ * handle kept past its entity's destruction resolves to nothing, rather
+ * than to whatever entity reuses the slot.
+ *
+ * The store also keeps an EntitySet of the entities of every type, of every
+ * unit, and of the entities with each flag set, updated as entities are
+ * created and destroyed and as their flags change. Flags must be changed
+ * through setFlag and setFlags for the sets to stay in step.
+ */
+public class EntityStore {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Entity type codes, stored in the type component */
+	public static final int NONE = 0, COMMAND_CNTR = 1, FACTORY = 2, PYLON = 3,
+			METAL = 4, UNOBTAINIUM = 5, SCOUT = 6, ENGINEER = 7, BUILDER = 8,
+			TRUCK = 9;
+	/** Names of each entity type, as used by the World, indexed by code */
+	public static final String[] NAMES = {null, World.COMMAND_CNTR,
+			World.FACTORY, World.PYLON, World.METAL, World.UNOBTAINIUM,
+			World.SCOUT, World.ENGINEER, World.BUILDER, World.TRUCK};
+
+	/** Flag set while a unit is moving toward its destination */
+	public static final int MOVING = 1;
+	/** Flag set while a Trainable is training */
+	public static final int BUSY = 2;
+	/** Flag set once a Pylon has been activated */
+	public static final int ACTIVE = 4;
+	/** Flag set once an entity is queued for removal */
+	public static final int REMOVING = 8;
+	/** Flag set while an engineer is carrying cargo */
+	public static final int CARRYING = 16;
+	/** Flag set while an engineer is waiting at a mine */
+	public static final int MINING = 32;
+	/** Flag set once a resource mine is empty */
+	public static final int DEPLETED = 64;
+	/** Number of flags */
+	private static final int FLAG_COUNT = 7;
+
+	/** Bits of a handle holding the id, enough for over four million */
+	public static final int SLOT_BITS = 22;
+	/** Mask of the id bits of a handle */
+	public static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+	/** Mask of a generation, the bits of a handle above the id, keeping
+	 * handles positive */
+	private static final int GENERATION_MASK = (1 << 31 - SLOT_BITS) - 1;
+	/** Handle that refers to no entity */
+	public static final int NO_HANDLE = -1;
+
+	/** Number of slots the store starts with */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/* ------------------------- Component Arrays ----------------------------*/
+	/** Type code of each entity, NONE for free slots */
+	public int[] type;
+	/** State flags of each entity */
+	public int[] flags;
+	/** Position of each entity, and its position before the last update */
+	public float[] x, y, lastX, lastY;
+	/** Destination and speed of each unit */
+	public float[] destX, destY, speed;
+	/** Milliseconds spent mining or training so far */
+	public int[] timer;
+	/** Milliseconds a training job takes, and the type code it creates */
+	public int[] duration, product;
+	/** Resource type code an engineer is carrying, NONE if empty */
+	public int[] cargo;
+	/** Coordinates of the mine an engineer last took cargo from */
+	public float[] mineX, mineY;
+	/** Handle of the Command Centre an engineer is carrying cargo to,
+	 * NO_HANDLE if none */
+	public int[] goal;
+	/** Amount left in a resource mine */
+	public int[] amount;
+	/** The Sprite viewing each slot */
+	public Sprite[] views;
+	/** Generation of each slot, advanced when its entity is destroyed */
+	public int[] generation;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** One past the highest slot ever used */
+	private int size = 0;
+	/** Stack of free slots below size, reused before growing */
+	private int[] free = new int[INITIAL_CAPACITY];
+	/** Number of slots in the free stack */
+	private int freeCount = 0;
+	/** Entities of each type, indexed by type code */
+	private final EntitySet[] types = new EntitySet[NAMES.length];
+	/** Number of entities of each type, indexed by type code */
+	private final int[] counts = new int[NAMES.length];
+	/** Entities that are units */
+	private final EntitySet units = new EntitySet(INITIAL_CAPACITY);
+	/** Entities with each flag set, indexed by the flag's bit */
+	private final EntitySet[] flagged = new EntitySet[FLAG_COUNT];
+
+	/*------------------------- EntityStore Methods --------------------------*/
+	/** EntityStore Constructor, allocates the initial component arrays.
+	 */
+	public EntityStore() {
+		for (int i = 0; i < types.length; i++) {
+			types[i] = new EntitySet(INITIAL_CAPACITY);
+		}
+		for (int i = 0; i < flagged.length; i++) {
+			flagged[i] = new EntitySet(INITIAL_CAPACITY);
+		}
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/** Creates an entity, reusing a free slot if there is one. Every
+	 * component is reset, and the position set.
+	 * @param entityType, the type code of the entity.
+	 * @param view, the Sprite that will view the slot.
+	 * @param x, the initial x coordinate.
+	 * @param y, the initial y coordinate.
+	 * @return int id of the new entity.
+	 */
+	public int create(int entityType, Sprite view, float x, float y) {
+		int id;
+		if (freeCount > 0) {
+			id = free[--freeCount];
+		} else {
+			if (size > SLOT_MASK) {
+				throw new IllegalStateException("More than " + (SLOT_MASK + 1)
+						+ " entities");
+			}
+			if (size == type.length) {
+				allocate(type.length * 2);
+			}
+			id = size++;
+		}
+		type[id] = entityType;
+		flags[id] = 0;
+		this.x[id] = x;
+		this.y[id] = y;
+		lastX[id] = x;
+		lastY[id] = y;
+		destX[id] = x;
+		destY[id] = y;
+		speed[id] = 0;
+		timer[id] = 0;
+		duration[id] = 0;
+		product[id] = NONE;
+		cargo[id] = NONE;
+		mineX[id] = 0;
+		mineY[id] = 0;
+		goal[id] = NO_HANDLE;
+		amount[id] = 0;
+		views[id] = view;
+		types[entityType].add(id);
+		counts[entityType]++;
+		if (isUnit(entityType)) {
+			units.add(id);
+		}
+		return id;
+	}
+
+	/** Makes room for a number of entities to be created, growing every
+	 * component array once rather than doubling it as they are created.
+	 * @param count, the number of entities about to be created.
+	 */
+	public void reserve(int count) {
+		int needed = size + Math.max(0, count - freeCount);
+		if (needed > type.length) {
+			int capacity = type.length;
+			while (capacity < needed) {
+				capacity *= 2;
+			}
+			allocate(capacity);
+		}
+	}
+
+	/** Destroys an entity, freeing its slot for reuse. Every handle to it
+	 * becomes stale.
+	 * @param id, the id of the entity.
+	 */
+	public void destroy(int id) {
+		if (type[id] == NONE) {
+			return;
+		}
+		types[type[id]].remove(id);
+		counts[type[id]]--;
+		units.remove(id);
+		setFlags(id, 0);
+		type[id] = NONE;
+		views[id] = null;
+		generation[id] = generation[id] + 1 & GENERATION_MASK;
+		if (freeCount == free.length) {
+			free = copyOf(free, free.length * 2);
+		}
+		free[freeCount++] = id;
+	}
+
+	/** Handle getter, the id of a live entity and its generation.
+	 * @param id, the id of the entity.
+	 * @return int handle, which stays valid until the entity is destroyed.
+	 */
+	public int handle(int id) {
+		return generation[id] << SLOT_BITS | id;
+	}
+
+	/** Resolves a handle to the id of its entity.
+	 * @param handle, the handle, or NO_HANDLE.
+	 * @return int id of the entity, or -1 if it has been destroyed.
+	 */
+	public int resolve(int handle) {
+		if (handle < 0) {
+			return -1;
+		}
+		int id = handle & SLOT_MASK;
+		if (id >= size || type[id] == NONE
+				|| generation[id] != handle >>> SLOT_BITS) {
+			return -1;
+		}
+		return id;
+	}
+
+	/** Size getter, the bound for iterating over every slot. Free slots
+	 * below it have the type NONE.
+	 * @return int one past the highest slot ever used.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/** Whether a flag is set for an entity.
+	 * @param id, the id of the entity.
+	 * @param flag, the flag to check.
+	 * @return boolean, true if set.
+	 */
+	public boolean hasFlag(int id, int flag) {
+		return (flags[id] & flag) != 0;
+	}
+
+	/** Sets or clears a flag for an entity.
+	 * @param id, the id of the entity.
+	 * @param flag, the flag to change.
+	 * @param on, whether to set or clear the flag.
+	 */
+	public void setFlag(int id, int flag, boolean on) {
+		if (on) {
+			setFlags(id, flags[id] | flag);
+		} else {
+			setFlags(id, flags[id] & ~flag);
+		}
+	}
+
+	/** Sets every flag of an entity at once.
+	 * @param id, the id of the entity.
+	 * @param value, the new flags.
+	 */
+	public void setFlags(int id, int value) {
+		int changed = flags[id] ^ value;
+		if (changed == 0) {
+			return;
+		}
+		flags[id] = value;
+		for (int bit = 0; bit < FLAG_COUNT; bit++) {
+			if ((changed & 1 << bit) != 0) {
+				if ((value & 1 << bit) != 0) {
+					flagged[bit].add(id);
+				} else {
+					flagged[bit].remove(id);
+				}
+			}
+		}
+	}
+
+	/** Sets the cargo an engineer is carrying, and its CARRYING flag.
+	 * @param id, the id of the engineer.
+	 * @param resource, the type code of the resource, NONE if empty.
+	 */
+	public void setCargo(int id, int resource) {
+		cargo[id] = resource;
+		setFlag(id, CARRYING, resource != NONE);
+	}
+
+	/** Number of entities of a type, kept as they are created and destroyed
+	 * rather than counted from the set.
+	 * @param entityType, the type code.
+	 * @return int number of entities.
+	 */
+	public int count(int entityType) {
+		return counts[entityType];
+	}
+
+	/** Entities of a type.
+	 * @param entityType, the type code.
+	 * @return EntitySet kept up to date by the store, not to be changed.
+	 */
+	public EntitySet ofType(int entityType) {
+		return types[entityType];
+	}
+
+	/** Entities that are units.
+	 * @return EntitySet kept up to date by the store, not to be changed.
+	 */
+	public EntitySet units() {
+		return units;
+	}
+
+	/** Counts the entities of a type that are idle: not moving, mining,
+	 * carrying or training.
+	 * @param entityType, the type code.
+	 * @return int number of idle entities.
+	 */
+	public int countIdle(int entityType) {
+		int count = 0;
+		EntitySet set = types[entityType];
+		for (int id = set.next(0); id >= 0; id = set.next(id + 1)) {
+			if ((flags[id] & (MOVING | MINING | CARRYING | BUSY)) == 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/** Entities with a flag set.
+	 * @param flag, a single flag.
+	 * @return EntitySet kept up to date by the store, not to be changed.
+	 */
+	public EntitySet withFlag(int flag) {
+		return flagged[Integer.numberOfTrailingZeros(flag)];
+	}
+
+	/** Starts a training job, to be advanced by the training system.
+	 * @param id, the id of the Trainable.
+	 * @param productType, the type code of what is being trained.
+	 * @param time, milliseconds the job takes.
+	 */
+	public void startTraining(int id, int productType, int time) {
+		product[id] = productType;
+		duration[id] = time;
+		timer[id] = 0;
+		setFlag(id, BUSY, true);
+	}
+
+	/** Finds the type code of an entity type name.
+	 * @param name, the name used by the World.
+	 * @return int type code, NONE if unknown.
+	 */
+	public static int typeOf(String name) {
+		for (int i = 1; i < NAMES.length; i++) {
+			if (NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		return NONE;
+	}
+
+	/** Whether a type code is that of a building.
+	 * @param entityType, the type code.
+	 * @return boolean, true for Command Centres, Factories and Pylons.
+	 */
+	public static boolean isBuilding(int entityType) {
+		return entityType >= COMMAND_CNTR && entityType <= PYLON;
+	}
+
+	/** Whether a type code is that of a resource mine.
+	 * @param entityType, the type code.
+	 * @return boolean, true for metal and unobtainium.
+	 */
+	public static boolean isResource(int entityType) {
+		return entityType == METAL || entityType == UNOBTAINIUM;
+	}
+
+	/** Whether a type code is that of a unit.
+	 * @param entityType, the type code.
+	 * @return boolean, true for Scouts, Engineers, Builders and Trucks.
+	 */
+	public static boolean isUnit(int entityType) {
+		return entityType >= SCOUT;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Grows every component array to a new capacity.
+	 * @param capacity, the new number of slots.
+	 */
+	private void allocate(int capacity) {
+		type = copyOf(type, capacity);
+		flags = copyOf(flags, capacity);
+		x = copyOf(x, capacity);
+		y = copyOf(y, capacity);
+		lastX = copyOf(lastX, capacity);
+		lastY = copyOf(lastY, capacity);
+		destX = copyOf(destX, capacity);
+		destY = copyOf(destY, capacity);
+		speed = copyOf(speed, capacity);
+		timer = copyOf(timer, capacity);
+		duration = copyOf(duration, capacity);
+		product = copyOf(product, capacity);
+		cargo = copyOf(cargo, capacity);
+		mineX = copyOf(mineX, capacity);
+		mineY = copyOf(mineY, capacity);
+		goal = copyOf(goal, capacity);
+		amount = copyOf(amount, capacity);
+		generation = copyOf(generation, capacity);
+		units.reserve(capacity);
+		for (int i = 0; i < types.length; i++) {
+			types[i].reserve(capacity);
+		}
+		for (int i = 0; i < flagged.length; i++) {
+			flagged[i].reserve(capacity);
+		}
+		Sprite[] grown = new Sprite[capacity];
+		if (views != null) {
+			System.arraycopy(views, 0, grown, 0, views.length);
+		}
+		views = grown;
+	}
+
+	/** Copies an int array into a new one of a given length.
+	 * @param from, the array to copy, or null.
+	 * @param length, the length of the new array.
+	 * @return int array copied.
+	 */
+	private static int[] copyOf(int[] from, int length) {
+		int[] to = new int[length];
+		if (from != null) {
+			System.arraycopy(from, 0, to, 0, Math.min(from.length, length));
+		}
+		return to;
+	}
+
+	/** Copies a float array into a new one of a given length.
+	 * @param from, the array to copy, or null.
+	 * @param length, the length of the new array.
+	 * @return float array copied.
+	 */
+	private static float[] copyOf(float[] from, int length) {
+		float[] to = new float[length];
+		if (from != null) {
+			System.arraycopy(from, 0, to, 0, Math.min(from.length, length));
+		}
+		return to;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
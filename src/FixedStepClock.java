@@ -0,0 +1,49 @@
+/**
+ * FixedStepClock class, decouples the simulation rate from the frame rate.
+ * Frame times are added to an accumulator, which is paid out in whole fixed
+ * length ticks, so every World update sees the same delta no matter how
+ * fast or slow frames are. The time left over between ticks is used to
+ * interpolate rendering.
+ */
+public class FixedStepClock {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Milliseconds of game time per simulation tick, roughly 60 Hz */
+	public static final int STEP = 16;
+	/** Most ticks run for a single frame, so a slow frame cannot spiral */
+	public static final int MAX_STEPS = 5;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Milliseconds of frame time not yet paid out as ticks */
+	private int accumulator = 0;
+
+	/*------------------------ FixedStepClock Methods ------------------------*/
+	/** Adds a frame's time to the accumulator, and works out how many ticks
+	 * should run. Time owed beyond MAX_STEPS ticks is dropped, so the game
+	 * slows down rather than stalling after a long hitch.
+	 * @param delta, milliseconds passed since the last frame.
+	 * @return int number of ticks to run this frame.
+	 */
+	public int advance(int delta) {
+		accumulator += delta;
+		int steps = accumulator / STEP;
+		if (steps > MAX_STEPS) {
+			steps = MAX_STEPS;
+			accumulator = 0;
+		} else {
+			accumulator -= steps * STEP;
+		}
+		return steps;
+	}
+
+	/** Interpolation factor getter, the fraction of a tick that has passed
+	 * since the last one ran.
+	 * @return float between 0 and 1.
+	 */
+	public float getAlpha() {
+		return (float) accumulator / STEP;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
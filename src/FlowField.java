@@ -0,0 +1,315 @@
+import java.util.Arrays;
+
+/**
+ * FlowField class, the shortest route from every tile of the map to a single
+ * goal tile, found with Dijkstra's algorithm over the map's solid tiles.
+ * Each tile holds the next tile to step onto, so any number of units heading
+ * for the goal can look up their next step in constant time rather than each
+ * planning a path of their own. Units move to any of the 8 neighbouring
+ * tiles, but never cut the corner of a solid tile.
+ *
+ * The search runs only as far as it is needed: it is paused, and carried on
+ * outward from the goal whenever a tile it has not yet settled is asked for,
+ * so the field only ever covers the tiles within reach of the units using
+ * it, and the steps found are the same as a search over the whole map. The
+ * field is kept in square pages of ChunkedGameMap.CHUNK_TILES tiles, created
+ * as the search reaches them. Each page holds a byte a tile for the step,
+ * and while the search is still reaching tiles of the page, their costs;
+ * once every free tile of a page has been settled, its costs are dropped.
+ *
+ * Only settle carries the search on, and only the thread updating the World
+ * may call it; next only reads, so may be called from the unit phase's
+ * threads. The World settles the tile of every unit following a field
+ * before the unit phase, a limited number of search steps an update, and
+ * until the search reaches a unit's tile it has no next tile to give.
+ * Tiles the goal cannot be reached from are only known once the search has
+ * covered everything that can reach it.
+ */
+public class FlowField {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Cost of a step to an orthogonal and a diagonal neighbour */
+	private static final int STRAIGHT = 10, DIAGONAL = 14;
+	/** Cost of a tile the search has not reached */
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+	/** Cost read from a page whose tiles are all settled, lower than any */
+	private static final int SETTLED = -1;
+	/** Costs of a page whose tiles are all settled, shared */
+	private static final int[] SETTLED_PAGE = new int[0];
+	/** Column and row offsets of the 8 neighbours, orthogonal first */
+	private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+	private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+	/** Width and height of a page as a power of two */
+	private static final int SHIFT = ChunkedGameMap.CHUNK_SHIFT;
+	/** Width and height of a page, in tiles */
+	private static final int PAGE = 1 << SHIFT;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The passability of the map the field is over */
+	private final PassabilityMap map;
+	/** Width and height of the map in tiles */
+	private final int width, height;
+	/** Number of page columns */
+	private final int pageColumns;
+	/** Tile the field leads to, as x + y * width */
+	private final int goal;
+	/** Pages of the direction to each tile's next tile toward the goal, plus
+	 * one, 0 at the goal or if the goal is not yet reached from it, indexed
+	 * by page column + page row * pageColumns, null until reached */
+	private final byte[][] steps;
+	/** Pages of the cost of the best route found from each tile, null until
+	 * reached, SETTLED_PAGE once every free tile in the page is settled */
+	private final int[][] costs;
+	/** Free tiles in each page, and how many of them have been settled */
+	private final int[] free, settled;
+	/** Min heap of cost << 32 | tile still to settle, stale entries are
+	 * skipped */
+	private long[] heap = new long[64];
+	/** Number of entries in the heap */
+	private int heapSize = 0;
+
+	/*--------------------------- FlowField Methods --------------------------*/
+	/** FlowField Constructor. Starts the search toward a goal tile.
+	 * @param map, the passability of the map.
+	 * @param goalX, x coordinate of the goal in tiles.
+	 * @param goalY, y coordinate of the goal in tiles.
+	 */
+	public FlowField(PassabilityMap map, int goalX, int goalY) {
+		this.map = map;
+		this.width = map.getWidth();
+		this.height = map.getHeight();
+		goalX = Math.max(0, Math.min(width - 1, goalX));
+		goalY = Math.max(0, Math.min(height - 1, goalY));
+		this.goal = goalX + goalY * width;
+		this.pageColumns = (width + PAGE - 1) >> SHIFT;
+		int pages = pageColumns * ((height + PAGE - 1) >> SHIFT);
+		this.steps = new byte[pages][];
+		this.costs = new int[pages][];
+		this.free = new int[pages];
+		this.settled = new int[pages];
+		reach(goalX, goalY, 0, -1);
+		heap[heapSize++] = goal;
+	}
+
+	/** Carries the search on until a tile is settled, so its next tile will
+	 * not change, or until nothing more can be reached, taking at most a
+	 * number of search steps. Solid tiles and tiles off the map are never
+	 * reached, so are left at once.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @param budget, the most search steps to take.
+	 * @return int search steps left of the budget.
+	 */
+	public int settle(int x, int y, int budget) {
+		if (x < 0 || y < 0 || x >= width || y >= height || map.isSolid(x, y)) {
+			return budget;
+		}
+		while (budget > 0 && !isSettled(x, y)) {
+			expand();
+			budget--;
+		}
+		return budget;
+	}
+
+	/** Finds the next tile to step onto from a tile, if it is settled.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @return int next tile as x + y * width, or -1 if already at the goal,
+	 * off the map, not yet settled, or the goal cannot be reached.
+	 */
+	public int next(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height || !isSettled(x, y)) {
+			return -1;
+		}
+		byte[] page = steps[pageOf(x, y)];
+		int d = page == null ? -1 : page[indexOf(x, y)] - 1;
+		if (d < 0) {
+			return -1;
+		}
+		return x - DX[d] + (y - DY[d]) * width;
+	}
+
+	/** Width getter, used to split the tiles returned by next.
+	 * @return int width of the map in tiles.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Whether a tile's next tile is final. No route found later can beat a
+	 * cost no higher than the cheapest still to settle, as every step costs
+	 * more than nothing.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @return boolean, true if the search is done with the tile.
+	 */
+	private boolean isSettled(int x, int y) {
+		return heapSize == 0 || (heap[0] >>> 32) >= cost(x, y);
+	}
+
+	/** Settles the cheapest tile still to settle, offering each neighbour
+	 * a route through it, as one step of Dijkstra's algorithm.
+	 */
+	private void expand() {
+		long top = heap[0];
+		heap[0] = heap[--heapSize];
+		siftDown(heap, heapSize);
+		int tile = (int) top;
+		int tileCost = (int) (top >>> 32);
+		int x = tile % width;
+		int y = tile / width;
+		if (tileCost > cost(x, y)) {
+			return;
+		}
+
+		for (int d = 0; d < DX.length; d++) {
+			int nx = x + DX[d];
+			int ny = y + DY[d];
+			if (nx < 0 || ny < 0 || nx >= width || ny >= height
+					|| map.isSolid(nx, ny)) {
+				continue;
+			}
+			//Diagonal steps may not cut the corner of a solid tile
+			boolean diagonal = DX[d] != 0 && DY[d] != 0;
+			if (diagonal && (map.isSolid(nx, y) || map.isSolid(x, ny))) {
+				continue;
+			}
+			int newCost = tileCost + (diagonal ? DIAGONAL : STRAIGHT);
+			if (newCost < cost(nx, ny)) {
+				reach(nx, ny, newCost, d);
+				if (heapSize == heap.length) {
+					heap = Arrays.copyOf(heap, heapSize * 2);
+				}
+				heap[heapSize] = ((long) newCost << 32) | (nx + ny * width);
+				siftUp(heap, heapSize++);
+			}
+		}
+
+		//drop the costs of a page once all its free tiles are settled; the
+		//goal is settled first even if it is solid, so is not counted then
+		int p = pageOf(x, y);
+		if (!map.isSolid(x, y) && ++settled[p] == free[p]) {
+			costs[p] = SETTLED_PAGE;
+		}
+	}
+
+	/** Records a cheaper route to a tile, creating its pages if this is the
+	 * first.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @param cost, the cost of the route.
+	 * @param d, the direction stepped in to reach the tile, -1 at the goal.
+	 */
+	private void reach(int x, int y, int cost, int d) {
+		int p = pageOf(x, y);
+		if (costs[p] == null) {
+			costs[p] = new int[PAGE * PAGE];
+			Arrays.fill(costs[p], UNREACHABLE);
+			steps[p] = new byte[PAGE * PAGE];
+			free[p] = countFree(p);
+		}
+		costs[p][indexOf(x, y)] = cost;
+		steps[p][indexOf(x, y)] = (byte) (d + 1);
+	}
+
+	/** Cost of the best route found from a tile.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @return int cost, UNREACHABLE if not yet reached, or SETTLED if its
+	 * page is settled.
+	 */
+	private int cost(int x, int y) {
+		int[] page = costs[pageOf(x, y)];
+		if (page == null) {
+			return UNREACHABLE;
+		}
+		if (page == SETTLED_PAGE) {
+			return SETTLED;
+		}
+		return page[indexOf(x, y)];
+	}
+
+	/** Counts the tiles of a page that are not solid.
+	 * @param p, the index of the page.
+	 * @return int number of free tiles on the map within the page.
+	 */
+	private int countFree(int p) {
+		int left = (p % pageColumns) << SHIFT;
+		int top = (p / pageColumns) << SHIFT;
+		int count = 0;
+		for (int y = top; y < Math.min(height, top + PAGE); y++) {
+			for (int x = left; x < Math.min(width, left + PAGE); x++) {
+				if (!map.isSolid(x, y)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/** Finds the page of a tile.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @return int index of the page.
+	 */
+	private int pageOf(int x, int y) {
+		return (x >> SHIFT) + (y >> SHIFT) * pageColumns;
+	}
+
+	/** Finds a tile within its page.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @return int index of the tile in its page.
+	 */
+	private static int indexOf(int x, int y) {
+		return (x & PAGE - 1) + ((y & PAGE - 1) << SHIFT);
+	}
+
+	/** Moves a heap entry up until its parent is no larger.
+	 * @param heap, the heap.
+	 * @param i, index of the entry.
+	 */
+	private static void siftUp(long[] heap, int i) {
+		long entry = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >> 1;
+			if (heap[parent] <= entry) {
+				break;
+			}
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = entry;
+	}
+
+	/** Moves the root of a heap down until its children are no smaller.
+	 * @param heap, the heap.
+	 * @param size, number of entries in the heap.
+	 */
+	private static void siftDown(long[] heap, int size) {
+		if (size == 0) {
+			return;
+		}
+		long entry = heap[0];
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (entry <= heap[child]) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = entry;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
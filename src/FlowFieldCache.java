@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+/**
+ * FlowFieldCache class, holds one FlowField toward every Command Centre in
+ * the World, indexed by the centre's entity id. A field is started when its
+ * centre is created and dropped when it is destroyed, and is otherwise
+ * never rebuilt, as the map's solid tiles do not change. Fields grow as far
+ * as the units following them need, settled by the World before the unit
+ * phase so that the phase's threads only read them. At most SETTLE_BUDGET
+ * search steps are taken an update, so many units starting out toward
+ * distant centres at once spread the search over several updates, heading
+ * straight for their centre until it reaches them.
+ */
+public class FlowFieldCache {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Most search steps taken over every field in an update */
+	public static final int SETTLE_BUDGET = 1 << 14;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Passability of the map the fields are built over */
+	private final PassabilityMap map;
+	/** Field toward each centre, indexed by entity id, null for others */
+	private FlowField[] fields = new FlowField[16];
+
+	/*------------------------ FlowFieldCache Methods ------------------------*/
+	/** FlowFieldCache Constructor.
+	 * @param map, the passability of the map.
+	 */
+	public FlowFieldCache(PassabilityMap map) {
+		this.map = map;
+	}
+
+	/** Starts the field toward a newly created centre.
+	 * @param centre, the Command Centre.
+	 */
+	public void add(Sprite centre) {
+		int id = centre.getId();
+		if (id >= fields.length) {
+			fields = Arrays.copyOf(fields, Math.max(id + 1, fields.length * 2));
+		}
+		fields[id] = new FlowField(map, (int) (centre.getX() / World.TILE_SIZE),
+				(int) (centre.getY() / World.TILE_SIZE));
+	}
+
+	/** Drops the field toward a centre about to be destroyed.
+	 * @param centre, the Command Centre.
+	 */
+	public void remove(Sprite centre) {
+		int id = centre.getId();
+		if (id >= 0 && id < fields.length) {
+			fields[id] = null;
+		}
+	}
+
+	/** Settles the tile of every moving unit carrying cargo in the field it
+	 * follows, so the unit phase finds the steps it looks up already found,
+	 * until SETTLE_BUDGET search steps have been taken. Units move before
+	 * they mine in the phase, so the tile is the one the unit starts the
+	 * update on.
+	 * @param store, the store holding the units.
+	 */
+	public void settle(EntityStore store) {
+		EntitySet carrying = store.withFlag(EntityStore.CARRYING);
+		int budget = SETTLE_BUDGET;
+		for (int id = carrying.next(0); id >= 0 && budget > 0;
+				id = carrying.next(id + 1)) {
+			if (!store.hasFlag(id, EntityStore.MOVING)) {
+				continue;
+			}
+			FlowField field = get(store.resolve(store.goal[id]));
+			if (field != null) {
+				budget = field.settle((int) (store.x[id] / World.TILE_SIZE),
+						(int) (store.y[id] / World.TILE_SIZE), budget);
+			}
+		}
+	}
+
+	/** Field getter.
+	 * @param id, the entity id of the Command Centre.
+	 * @return FlowField toward the centre, or null if there is none.
+	 */
+	public FlowField get(int id) {
+		if (id < 0 || id >= fields.length) {
+			return null;
+		}
+		return fields[id];
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
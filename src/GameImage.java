@@ -0,0 +1,27 @@
+import org.newdawn.slick.SlickException;
+
+/**
+ * GameImage interface, an image a Sprite can draw. Allows Sprites to be
+ * created without an OpenGL context when running headless.
+ */
+public interface GameImage {
+	
+	/*-------------------------- GameImage Methods ---------------------------*/
+	/** Draws the image centred on a screen location.
+	 * @param x, screen x coordinate of the centre.
+	 * @param y, screen y coordinate of the centre.
+	 */
+	public abstract void drawCentered(float x, float y);
+	
+	/** Texture memory getter, used by the asset cache's report.
+	 * @return long bytes of texture memory the image holds.
+	 */
+	public abstract long getTextureBytes();
+	
+	/** Frees the image's texture. It must not be drawn afterwards.
+	 */
+	public abstract void destroy() throws SlickException;
+	
+	/*------------------------------------------------------------------------*/
+	
+}
@@ -0,0 +1,38 @@
+/**
+ * GameInput interface, the subset of input the World and its Sprites read
+ * each update. Key and button codes are those of org.newdawn.slick.Input.
+ */
+public interface GameInput {
+	
+	/*-------------------------- GameInput Methods ---------------------------*/
+	/** Whether a key is currently held down.
+	 * @param key, the key code.
+	 * @return boolean, true if held.
+	 */
+	public abstract boolean isKeyDown(int key);
+	
+	/** Whether a key has been pressed since it was last checked.
+	 * @param key, the key code.
+	 * @return boolean, true if pressed.
+	 */
+	public abstract boolean isKeyPressed(int key);
+	
+	/** Whether a mouse button has been pressed since it was last checked.
+	 * @param button, the button code.
+	 * @return boolean, true if pressed.
+	 */
+	public abstract boolean isMousePressed(int button);
+	
+	/** Mouse x getter.
+	 * @return int x coordinate of the mouse on the screen.
+	 */
+	public abstract int getMouseX();
+	
+	/** Mouse y getter.
+	 * @return int y coordinate of the mouse on the screen.
+	 */
+	public abstract int getMouseY();
+	
+	/*------------------------------------------------------------------------*/
+	
+}
@@ -0,0 +1,64 @@
+/**
+ * GameMap interface, implemented by anything the World can use as its tile
+ * map. Allows the World to run either on a Slick TiledMap, or on a map
+ * decoded without any display for headless simulation.
+ */
+public interface GameMap {
+	
+	/*--------------------------- GameMap Methods ----------------------------*/
+	/** Width getter.
+	 * @return int width of the map in tiles.
+	 */
+	public abstract int getWidth();
+	
+	/** Height getter.
+	 * @return int height of the map in tiles.
+	 */
+	public abstract int getHeight();
+	
+	/** Tile id getter, for the tile at a given location.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @param layer, the index of the layer to read.
+	 * @return int global id of the tile, or 0 if there is none.
+	 */
+	public abstract int getTileId(int x, int y, int layer);
+	
+	/** Tile property getter.
+	 * @param tileId, the global id of the tile.
+	 * @param name, the name of the property.
+	 * @param def, the value to return if the property is not set.
+	 * @return String value of the property.
+	 */
+	public abstract String getTileProperty(int tileId, String name, String def);
+	
+	/** Prefetch method, pages in the tiles of a rectangle of the map ahead
+	 * of them being read, for maps that are not held wholly in memory.
+	 * @param tileX, x coordinate of the top left tile, in tiles.
+	 * @param tileY, y coordinate of the top left tile, in tiles.
+	 * @param width, number of columns of tiles.
+	 * @param height, number of rows of tiles.
+	 */
+	public abstract void prefetch(int tileX, int tileY, int width, int height);
+	
+	/** Render method, draws the map with its top left corner at x and y.
+	 * @param x, screen x coordinate to draw at.
+	 * @param y, screen y coordinate to draw at.
+	 */
+	public abstract void render(int x, int y);
+	
+	/** Render method for part of the map, draws a rectangle of tiles with
+	 * its top left tile at x and y.
+	 * @param x, screen x coordinate to draw at.
+	 * @param y, screen y coordinate to draw at.
+	 * @param tileX, x coordinate of the top left tile to draw, in tiles.
+	 * @param tileY, y coordinate of the top left tile to draw, in tiles.
+	 * @param width, number of columns of tiles to draw.
+	 * @param height, number of rows of tiles to draw.
+	 */
+	public abstract void render(int x, int y, int tileX, int tileY, int width,
+			int height);
+	
+	/*------------------------------------------------------------------------*/
+	
+}
@@ -0,0 +1,84 @@
+import org.newdawn.slick.SlickException;
+
+/**
+ * Headless class, runs the World simulation with no window, no input and no
+ * textures, as fast as the CPU allows. Used for soak runs and balance
+ * testing, and reports the raw simulation throughput in ticks per second.
+ *
+ * Usage: java Headless [ticks] [delta] [map] [objects] [threads]
+ */
+public class Headless {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Default number of ticks to simulate */
+	private static final int DEFAULT_TICKS = 100000;
+	/** Default milliseconds of game time per tick */
+	private static final int DEFAULT_DELTA = FixedStepClock.STEP;
+	/** Nanoseconds between progress reports */
+	private static final long REPORT_INTERVAL = 1000000000L;
+
+	/*--------------------------- Headless Methods ---------------------------*/
+	/** Opens a map to simulate, a ChunkedGameMap if its path ends in
+	 * ChunkedGameMap.EXTENSION and a TmxGameMap otherwise.
+	 * @param path, path of the map.
+	 * @return GameMap opened.
+	 */
+	public static GameMap openMap(String path) throws SlickException {
+		if (path.endsWith(ChunkedGameMap.EXTENSION)) {
+			return new ChunkedGameMap(path, ChunkedGameMap.DEFAULT_BUDGET);
+		}
+		return new TmxGameMap(path);
+	}
+
+	/** Creates a World without any Slick display objects.
+	 * @param map, path of the TMX or chunked map.
+	 * @param objects, path of the CSV of initial Sprites.
+	 * @return World ready to be updated.
+	 */
+	public static World createWorld(String map, String objects)
+			throws SlickException {
+		return new World(openMap(map), new HeadlessImageLoader(), objects);
+	}
+
+	/** Start-up method. Simulates the World for a number of ticks, printing
+	 * the ticks per second achieved every second and once finished.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws SlickException {
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+		int delta = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DELTA;
+		String map = args.length > 2 ? args[2] : World.MAP_NAME;
+		String objects = args.length > 3 ? args[3] : World.CSV_NAME;
+
+		World world = createWorld(map, objects);
+		if (args.length > 4) {
+			world.setThreads(Integer.parseInt(args[4]));
+		}
+		GameInput input = new HeadlessInput();
+
+		long start = System.nanoTime();
+		long lastReport = start;
+		int lastTick = 0;
+		for (int tick = 1; tick <= ticks; tick++) {
+			world.update(input, delta);
+
+			long now = System.nanoTime();
+			if (now - lastReport >= REPORT_INTERVAL) {
+				System.out.printf("tick %d: %.0f ticks/s%n", tick,
+						(tick - lastTick) * 1e9 / (now - lastReport));
+				lastReport = now;
+				lastTick = tick;
+			}
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d ticks in %.3f s: %.0f ticks/s (%.1fx real time)%n",
+				ticks, seconds, ticks / seconds,
+				ticks * (double) delta / 1000 / seconds);
+		System.out.print(Sprite.getAssets().report());
+		world.close();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
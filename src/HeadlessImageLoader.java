@@ -0,0 +1,33 @@
+/**
+ * HeadlessImageLoader class, used when running with no window. No files are
+ * read and every image draws nothing.
+ */
+public class HeadlessImageLoader implements ImageLoader {
+	
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Single blank image shared by every Sprite */
+	private static final GameImage BLANK = new GameImage() {
+		@Override
+		public void drawCentered(float x, float y) {}
+		
+		@Override
+		public long getTextureBytes() {
+			return 0;
+		}
+		
+		@Override
+		public void destroy() {}
+	};
+	
+	/*------------------- Implemented ImageLoader Methods --------------------*/
+	@Override
+	public GameImage load(String path) {
+		return BLANK;
+	}
+	
+	@Override
+	public void flush() {}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
@@ -0,0 +1,35 @@
+/**
+ * HeadlessInput class, a GameInput for running the World with no window.
+ * No keys or buttons are ever pressed.
+ */
+public class HeadlessInput implements GameInput {
+	
+	/*-------------------- Implemented GameInput Methods ---------------------*/
+	@Override
+	public boolean isKeyDown(int key) {
+		return false;
+	}
+	
+	@Override
+	public boolean isKeyPressed(int key) {
+		return false;
+	}
+	
+	@Override
+	public boolean isMousePressed(int button) {
+		return false;
+	}
+	
+	@Override
+	public int getMouseX() {
+		return 0;
+	}
+	
+	@Override
+	public int getMouseY() {
+		return 0;
+	}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
@@ -0,0 +1,22 @@
+import org.newdawn.slick.SlickException;
+
+/**
+ * ImageLoader interface, used by Sprites to load the images they draw.
+ */
+public interface ImageLoader {
+	
+	/*------------------------- ImageLoader Methods --------------------------*/
+	/** Loads an image.
+	 * @param path, the path of the image file.
+	 * @return GameImage that can be drawn.
+	 */
+	public abstract GameImage load(String path) throws SlickException;
+	
+	/** Finishes any batched drawing. Called by the World once every Sprite
+	 * has been drawn, before anything else is.
+	 */
+	public abstract void flush();
+	
+	/*------------------------------------------------------------------------*/
+	
+}
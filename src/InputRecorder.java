@@ -0,0 +1,128 @@
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * InputRecorder class, reads the live input once at the start of every
+ * tick, hands it to the World as a LatchedInput, and appends it to an input
+ * log. Ticks with no input are written as runs, so an idle tick costs
+ * nothing and a long session a few kilobytes. Mouse clicks are logged in
+ * world coordinates. The log can be replayed by the Replay driver.
+ */
+public class InputRecorder extends LatchedInput {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Default path of the input log */
+	public static final String LOG_NAME = "session.rec";
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The input being recorded */
+	private final GameInput live;
+	/** The log being written, null once closed */
+	private OutputStream out;
+	/** Delta of the last tick written */
+	private int lastDelta = 0;
+	/** Ticks with no input and the last delta, not yet written */
+	private int idle = 0;
+
+	/*------------------------ InputRecorder Methods -------------------------*/
+	/** InputRecorder Constructor. Writes the header of the log.
+	 * @param live, the input to record.
+	 * @param path, the path of the log.
+	 * @param map, the path of the World's map.
+	 * @param start, the path of the objects or save file the World started
+	 * from.
+	 * @param save, whether the World started from a save file.
+	 */
+	public InputRecorder(GameInput live, String path, String map, String start,
+			boolean save) throws IOException {
+		this.live = live;
+		this.out = new BufferedOutputStream(new FileOutputStream(path));
+		for (int shift = 24; shift >= 0; shift -= 8) {
+			out.write(MAGIC >>> shift);
+		}
+		writeVarint(out, VERSION);
+		writeString(out, map);
+		writeString(out, start);
+		writeVarint(out, save ? 1 : 0);
+	}
+
+	/** Reads the live input for a tick, and logs it. Called before each
+	 * World update, which is then given this recorder as its input.
+	 * @param world, the World about to be updated, whose camera places
+	 * clicks in the world.
+	 * @param delta, milliseconds the tick will last.
+	 */
+	public synchronized void poll(World world, int delta) {
+		mask = 0;
+		for (int i = 0; i < KEYS.length; i++) {
+			if (live.isKeyDown(KEYS[i])) {
+				mask |= 1 << i;
+			}
+			if (live.isKeyPressed(KEYS[i])) {
+				mask |= 1 << PRESSED + i;
+			}
+		}
+		for (int i = 0; i < BUTTONS.length; i++) {
+			if (live.isMousePressed(BUTTONS[i])) {
+				mask |= 1 << CLICKED + i;
+			}
+		}
+		mouseX = live.getMouseX();
+		mouseY = live.getMouseY();
+		if (out == null) {
+			return;
+		}
+
+		try {
+			if (mask == 0 && delta == lastDelta) {
+				idle++;
+				return;
+			}
+			writeIdle();
+			writeVarint(out, mask << 1 | 1);
+			writeVarint(out, delta);
+			if (mask >>> CLICKED != 0) {
+				//floored here, and ceiled on replay, to give back the screen
+				// coordinates exactly
+				Camera camera = world.getCamera();
+				writeSigned(out, (int) Math.floor(camera.screenXToGlobalX(mouseX)));
+				writeSigned(out, (int) Math.floor(camera.screenYToGlobalY(mouseY)));
+			}
+			lastDelta = delta;
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	/** Writes any ticks still pending and closes the log. Safe to call
+	 * more than once, and from a shutdown hook.
+	 */
+	public synchronized void close() {
+		if (out == null) {
+			return;
+		}
+		try {
+			writeIdle();
+			out.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		out = null;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Writes the run of idle ticks, if there is one.
+	 */
+	private void writeIdle() throws IOException {
+		if (idle > 0) {
+			writeVarint(out, idle << 1);
+			idle = 0;
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,190 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.newdawn.slick.Input;
+
+/**
+ * LatchedInput class, a GameInput holding the input of a single tick, as
+ * recorded by the InputRecorder and replayed by the ReplayInput. Only the
+ * keys and buttons the game reads are held. As with Slick's Input, a press
+ * is reported once, and then cleared.
+ *
+ * An input log is the MAGIC int, then as varints the VERSION, the map
+ * path, the path of the file the World started from and whether that was
+ * a save file, followed by entries. An entry with its low bit clear is a
+ * run of that many ticks, shifted right once, with no input and the delta
+ * of the tick before. An entry with its low bit set is one tick, whose mask
+ * of key and button bits is the entry shifted right once, followed by its
+ * delta, and by the world coordinates of the mouse if a button was pressed.
+ */
+public abstract class LatchedInput implements GameInput {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** First four bytes of an input log, "SBIN" */
+	public static final int MAGIC = 0x5342494E;
+	/** Version of the log format written */
+	public static final int VERSION = 1;
+	/** Keys the game reads, by bit in the masks */
+	protected static final int[] KEYS = {Input.KEY_ESCAPE, Input.KEY_W,
+			Input.KEY_A, Input.KEY_S, Input.KEY_D, Input.KEY_1, Input.KEY_2,
+			Input.KEY_3};
+	/** Buttons the game reads, by bit in the masks */
+	protected static final int[] BUTTONS = {Input.MOUSE_LEFT_BUTTON,
+			Input.MOUSE_RIGHT_BUTTON};
+	/** Shift of the key pressed bits in a mask, after the key down bits */
+	protected static final int PRESSED = KEYS.length;
+	/** Shift of the button bits in a mask, after the key pressed bits */
+	protected static final int CLICKED = 2 * KEYS.length;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Key and button bits of the tick, pressed bits cleared once read */
+	protected int mask;
+	/** Screen coordinates of the mouse during the tick */
+	protected int mouseX, mouseY;
+
+	/*-------------------- Implemented GameInput Methods ---------------------*/
+	@Override
+	public boolean isKeyDown(int key) {
+		int bit = indexOf(KEYS, key);
+		return bit >= 0 && (mask & 1 << bit) != 0;
+	}
+
+	@Override
+	public boolean isKeyPressed(int key) {
+		int bit = indexOf(KEYS, key);
+		return bit >= 0 && consume(PRESSED + bit);
+	}
+
+	@Override
+	public boolean isMousePressed(int button) {
+		int bit = indexOf(BUTTONS, button);
+		return bit >= 0 && consume(CLICKED + bit);
+	}
+
+	@Override
+	public int getMouseX() {
+		return mouseX;
+	}
+
+	@Override
+	public int getMouseY() {
+		return mouseY;
+	}
+
+	/*------------------------- Varint Helper Methods ------------------------*/
+	/** Writes an int as a varint, seven bits a byte, lowest first.
+	 * @param out, the stream to write to.
+	 * @param value, the int, treated as unsigned.
+	 */
+	protected static void writeVarint(OutputStream out, int value)
+			throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write(value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	/** Reads a varint written by writeVarint.
+	 * @param in, the stream to read from.
+	 * @return int read.
+	 */
+	protected static int readVarint(InputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException();
+			}
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/** Writes a signed int as a varint, zigzag encoded so that small
+	 * negative numbers stay short.
+	 * @param out, the stream to write to.
+	 * @param value, the int.
+	 */
+	protected static void writeSigned(OutputStream out, int value)
+			throws IOException {
+		writeVarint(out, value << 1 ^ value >> 31);
+	}
+
+	/** Reads a signed int written by writeSigned.
+	 * @param in, the stream to read from.
+	 * @return int read.
+	 */
+	protected static int readSigned(InputStream in) throws IOException {
+		int value = readVarint(in);
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/** Writes a String as its length and UTF-8 bytes.
+	 * @param out, the stream to write to.
+	 * @param value, the String, or null.
+	 */
+	protected static void writeString(OutputStream out, String value)
+			throws IOException {
+		if (value == null) {
+			writeVarint(out, 0);
+			return;
+		}
+		byte[] bytes = value.getBytes("UTF-8");
+		writeVarint(out, bytes.length + 1);
+		out.write(bytes);
+	}
+
+	/** Reads a String written by writeString.
+	 * @param in, the stream to read from.
+	 * @return String read, or null.
+	 */
+	protected static String readString(InputStream in) throws IOException {
+		int length = readVarint(in) - 1;
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		for (int read = 0; read < length; ) {
+			int n = in.read(bytes, read, length - read);
+			if (n < 0) {
+				throw new EOFException();
+			}
+			read += n;
+		}
+		return new String(bytes, "UTF-8");
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Reads and clears a bit of the mask.
+	 * @param bit, the bit.
+	 * @return boolean, true if it was set.
+	 */
+	private boolean consume(int bit) {
+		boolean set = (mask & 1 << bit) != 0;
+		mask &= ~(1 << bit);
+		return set;
+	}
+
+	/** Finds a code in a table.
+	 * @param table, the codes.
+	 * @param code, the code to find.
+	 * @return int index of the code, or -1 if it is not there.
+	 */
+	private static int indexOf(int[] table, int code) {
+		for (int i = 0; i < table.length; i++) {
+			if (table[i] == code) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
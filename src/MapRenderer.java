@@ -0,0 +1,153 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+/**
+ * MapRenderer class, draws only the part of the map under the camera. The
+ * map is split into square chunks of CHUNK_TILES tiles, each prerendered
+ * once into an image of its own, so a frame costs one draw per visible chunk
+ * however big the map is. The most recently drawn chunks are kept, and the
+ * rest destroyed. If images cannot be rendered into, the visible rectangle
+ * of tiles is drawn straight from the map instead.
+ */
+public class MapRenderer {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Width and height of a chunk, in tiles */
+	public static final int CHUNK_TILES = 16;
+	/** Width and height of a chunk, in pixels */
+	private static final int CHUNK_SIZE = CHUNK_TILES * World.TILE_SIZE;
+	/** Most chunk images kept at once */
+	private static final int MAX_CHUNKS = 32;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The map being drawn */
+	private final GameMap map;
+	/** Number of chunk columns covering the map */
+	private final int columns;
+	/** Chunk images, keyed by column + row * columns, least recently drawn
+	 * first */
+	private final LinkedHashMap<Integer, Image> chunks =
+			new LinkedHashMap<>(16, 0.75f, true);
+	/** Whether chunks are being cached, false once rendering into an image
+	 * has failed */
+	private boolean caching = true;
+
+	/*------------------------- MapRenderer Methods --------------------------*/
+	/** MapRenderer Constructor.
+	 * @param map, the map to draw.
+	 */
+	public MapRenderer(GameMap map) {
+		this.map = map;
+		this.columns = (map.getWidth() + CHUNK_TILES - 1) / CHUNK_TILES;
+	}
+
+	/** Draws the part of the map under the camera.
+	 * @param g, the Graphics being drawn to, restored after drawing chunks.
+	 * @param camera, the camera giving the part of the map on screen.
+	 * @param width, width of the screen in pixels.
+	 * @param height, height of the screen in pixels.
+	 */
+	public void render(Graphics g, Camera camera, int width, int height) {
+		float viewX = camera.getViewX();
+		float viewY = camera.getViewY();
+		int firstX = Math.max(0, (int) Math.floor(viewX / World.TILE_SIZE));
+		int firstY = Math.max(0, (int) Math.floor(viewY / World.TILE_SIZE));
+		int lastX = Math.min(map.getWidth() - 1,
+				(int) Math.floor((viewX + width) / World.TILE_SIZE));
+		int lastY = Math.min(map.getHeight() - 1,
+				(int) Math.floor((viewY + height) / World.TILE_SIZE));
+		if (lastX < firstX || lastY < firstY) {
+			return;
+		}
+
+		for (int row = firstY / CHUNK_TILES; caching && row <= lastY / CHUNK_TILES; row++) {
+			for (int col = firstX / CHUNK_TILES; caching && col <= lastX / CHUNK_TILES; col++) {
+				Image chunk = chunk(g, col, row);
+				if (chunk != null) {
+					chunk.draw((int) camera.globalXToScreenX(col * CHUNK_SIZE),
+							(int) camera.globalYToScreenY(row * CHUNK_SIZE));
+				}
+			}
+		}
+		//chunks could not be rendered, so draw the visible tiles directly
+		if (!caching) {
+			map.render((int) camera.globalXToScreenX(firstX * World.TILE_SIZE),
+					(int) camera.globalYToScreenY(firstY * World.TILE_SIZE),
+					firstX, firstY, lastX - firstX + 1, lastY - firstY + 1);
+		}
+	}
+
+	/** Destroys every chunk image.
+	 */
+	public void clear() {
+		for (Image chunk : chunks.values()) {
+			destroy(chunk);
+		}
+		chunks.clear();
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Finds the image of a chunk, prerendering it if it is not cached, and
+	 * destroying the least recently drawn chunk if too many are.
+	 * @param g, the Graphics to restore after prerendering.
+	 * @param col, column of the chunk.
+	 * @param row, row of the chunk.
+	 * @return Image of the chunk, or null if it could not be rendered.
+	 */
+	private Image chunk(Graphics g, int col, int row) {
+		Integer key = col + row * columns;
+		Image chunk = chunks.get(key);
+		if (chunk != null) {
+			return chunk;
+		}
+
+		int tileX = col * CHUNK_TILES;
+		int tileY = row * CHUNK_TILES;
+		int tilesWide = Math.min(CHUNK_TILES, map.getWidth() - tileX);
+		int tilesHigh = Math.min(CHUNK_TILES, map.getHeight() - tileY);
+		try {
+			chunk = new Image(tilesWide * World.TILE_SIZE, tilesHigh * World.TILE_SIZE);
+			Graphics target = chunk.getGraphics();
+			Graphics.setCurrent(target);
+			map.render(0, 0, tileX, tileY, tilesWide, tilesHigh);
+			target.flush();
+		} catch (SlickException e) {
+			e.printStackTrace();
+			if (chunk != null) {
+				destroy(chunk);
+			}
+			caching = false;
+			clear();
+			return null;
+		} finally {
+			Graphics.setCurrent(g);
+		}
+
+		chunks.put(key, chunk);
+		if (chunks.size() > MAX_CHUNKS) {
+			Iterator<Map.Entry<Integer, Image>> eldest = chunks.entrySet().iterator();
+			destroy(eldest.next().getValue());
+			eldest.remove();
+		}
+		return chunk;
+	}
+
+	/** Destroys a chunk image, freeing its texture.
+	 * @param chunk, the image to destroy.
+	 */
+	private static void destroy(Image chunk) {
+		try {
+			chunk.destroy();
+		} catch (SlickException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,51 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * MineEvent class, a Java Flight Recorder event for an Engineer that has
+ * finished mining, and taken its cargo from the mine.
+ * Only created while a recording has the event enabled, so costs nothing
+ * otherwise.
+ */
+@Name("shadowbuild.Mine")
+@Label("Engineer Mine")
+@Category("Shadow Build")
+@StackTrace(false)
+public class MineEvent extends Event {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** The event's type, read to check whether it is enabled */
+	private static final EventType TYPE = EventType.getEventType(MineEvent.class);
+
+	/* ------------------------- Instance Variables --------------------------*/
+	@Label("Resource")
+	private String resource;
+	@Label("Amount")
+	private int amount;
+	@Label("Remaining")
+	private int remaining;
+
+	/*-------------------------- MineEvent Methods ---------------------------*/
+	/** Commits the event, if it is enabled.
+	 * @param resource, the EntityStore type code of the mine.
+	 * @param amount, the amount taken, the Engineer allowance.
+	 * @param remaining, the amount left in the mine before it is taken.
+	 */
+	public static void emit(int resource, int amount, int remaining) {
+		if (!TYPE.isEnabled()) {
+			return;
+		}
+		MineEvent event = new MineEvent();
+		event.resource = EntityStore.NAMES[resource];
+		event.amount = amount;
+		event.remaining = remaining;
+		event.commit();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,151 @@
+import java.util.ArrayList;
+
+/**
+ * MiningSystem class, carries out mining for an Engineer in the
+ * EntityStore. Run for every Engineer by the UnitPhase. Engineers near a mine
+ * wait MINE_TIME, take as much as their allowance, carry it to the nearest
+ * Command Centre, and return to the mine, until the mine is depleted.
+ * Depleted mines are passed to the World's remove cache.
+ */
+public class MiningSystem {
+	
+	/*------------------------- MiningSystem Methods -------------------------*/
+	/** Advances a single Engineer's mining by one update. Run for every
+	 * Engineer by the UnitPhase.
+	 * @param world, the world passing delta, proximity queries and totals.
+	 * @param store, the store holding the Engineer.
+	 * @param id, the id of the Engineer.
+	 * @param near, the list to fill with proximity query results.
+	 */
+	public static void step(World world, EntityStore store, int id,
+			ArrayList<Sprite> near) {
+		//If carrying resources, continue to dump otherwise mine.
+		if (store.cargo[id] != EntityStore.NONE) {
+			dump(world, store, id, near);
+		} else {
+			mine(world, store, id, near);
+		}
+	}
+	
+	/** Passes every empty mine to the World's remove cache, visiting only
+	 * the mines flagged DEPLETED.
+	 * @param world, the world to remove mines from.
+	 */
+	public static void retire(World world) {
+		EntityStore store = world.getStore();
+		EntitySet depleted = store.withFlag(EntityStore.DEPLETED);
+		for (int id = depleted.next(0); id >= 0; id = depleted.next(id + 1)) {
+			world.removeSprite(store.views[id]);
+		}
+	}
+	
+	/*------------------------ Private Mining Methods ------------------------*/
+    /**	Mine method that uses the timer component to keep track of mining 
+     * completion. Once enough time has passed, the Engineer takes its cargo
+     * and searches for the nearest Command Centre. Engineers waiting at a
+     * mine are flagged MINING.
+     * @param world, the world object passing through delta and it's mines.
+     * @param store, the store holding the Engineer.
+     * @param id, the id of the Engineer.
+     * @param near, the list to fill with proximity query results.
+     */
+	private static void mine(World world, EntityStore store, int id,
+			ArrayList<Sprite> near) {
+		world.queryRadius(store.x[id], store.y[id], Selectable.TOLERANCE, near);
+		//Check for all nearby mines, are we close to one
+		for (int i=0; i<near.size(); i++) {
+			
+			if (EntityStore.isResource(near.get(i).getEntityType())) {
+				Resource r=(Resource)near.get(i);
+				//if we are, increase the counter
+				if (store.timer[id] < Engineer.MINE_TIME) { 
+					store.timer[id] += world.getDelta();
+					store.setFlag(id, EntityStore.MINING, true);
+					
+				//if we've waited long enough, find the nearest command centre
+				//carrying the resource of the mine, remembering it's position.
+				} else {
+					store.mineX[id]=r.getX();
+					store.mineY[id]=r.getY();
+					store.timer[id]=0;
+					MineEvent.emit(r.getEntityType(), world.getAllowance(),
+							store.amount[r.getId()]);
+					world.depleteResource(r, world.getAllowance());
+					store.setCargo(id, r.getEntityType());
+					store.setFlag(id, EntityStore.MINING, false);
+					findCentre(world, store, id);
+				}
+				return;
+			}
+		}
+		//no mine in reach
+		store.setFlag(id, EntityStore.MINING, false);
+	}
+	
+    /**	Command Centre finding method that looks up the nearest command 
+     * centre in the World's centre index, sets it as the Engineer's 
+     * destination, and allows it to move there. If there is no centre, the
+     * Engineer keeps its cargo and waits.
+     * @param world, the world object passing it's Command Centres'.
+     * @param store, the store holding the Engineer.
+     * @param id, the id of the Engineer.
+     */
+	private static void findCentre(World world, EntityStore store, int id) {
+		int closest=world.nearestCentre(store.x[id], store.y[id]);
+		if (closest<0) {
+			return;
+		}
+		//Set our destination and allow us to move.
+		store.destX[id]=store.x[closest];
+		store.destY[id]=store.y[closest];
+		store.goal[id]=store.handle(closest);
+		store.setFlag(id, EntityStore.MOVING, true);
+	}
+	
+    /**	Resource dumping method that checks if the Engineer is close to a 
+     * command centre, and if so it dumps the resources and returns to the 
+     * mine it came from. Engineers that have stopped short of a centre, or
+     * had none to go to, look for one again every Engineer.RETRY_TIME, timed
+     * with the mining timer, which is unused while carrying.
+     * @param world, the world object passing it's Command Centres'.
+     * @param store, the store holding the Engineer.
+     * @param id, the id of the Engineer.
+     * @param near, the list to fill with proximity query results.
+     */
+	private static void dump(World world, EntityStore store, int id,
+			ArrayList<Sprite> near) {
+		world.queryRadius(store.x[id], store.y[id], Selectable.TOLERANCE, near);
+		
+		//for all nearby sprites
+		for (int i=0; i<near.size(); i++) {
+			//for all command centres, which are close enough
+			if (near.get(i).getEntityType() == EntityStore.COMMAND_CNTR) {
+				
+				//dump Resource, no longer carrying it
+				DumpEvent.emit(store.cargo[id], world.getAllowance());
+				world.resourceIncrease(EntityStore.NAMES[store.cargo[id]]);
+				store.setCargo(id, EntityStore.NONE);
+				store.timer[id]=0;
+				
+				//send back to current mine
+				store.destX[id]=store.mineX[id];
+				store.destY[id]=store.mineY[id];
+				store.setFlag(id, EntityStore.MOVING, true);
+				return;
+			}
+		}
+		
+		//not at a centre and no longer heading to one, so look again once
+		//the retry time is up, rather than every update while blocked
+		if (!store.hasFlag(id, EntityStore.MOVING)) {
+			store.timer[id] += world.getDelta();
+			if (store.timer[id] >= Engineer.RETRY_TIME) {
+				store.timer[id]=0;
+				findCentre(world, store, id);
+			}
+		}
+	}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
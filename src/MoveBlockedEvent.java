@@ -0,0 +1,51 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * MoveBlockedEvent class, a Java Flight Recorder event for a unit that has
+ * stopped moving as its next step was not a free position.
+ * Only created while a recording has the event enabled, so costs nothing
+ * otherwise.
+ */
+@Name("shadowbuild.MoveBlocked")
+@Label("Move Blocked")
+@Category("Shadow Build")
+@StackTrace(false)
+public class MoveBlockedEvent extends Event {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** The event's type, read to check whether it is enabled */
+	private static final EventType TYPE = EventType.getEventType(MoveBlockedEvent.class);
+
+	/* ------------------------- Instance Variables --------------------------*/
+	@Label("Entity Type")
+	private String entityType;
+	@Label("X")
+	private float x;
+	@Label("Y")
+	private float y;
+
+	/*----------------------- MoveBlockedEvent Methods -----------------------*/
+	/** Commits the event, if it is enabled.
+	 * @param entityType, the EntityStore type code of the unit.
+	 * @param x, the x coordinate it stopped at.
+	 * @param y, the y coordinate it stopped at.
+	 */
+	public static void emit(int entityType, float x, float y) {
+		if (!TYPE.isEnabled()) {
+			return;
+		}
+		MoveBlockedEvent event = new MoveBlockedEvent();
+		event.entityType = EntityStore.NAMES[entityType];
+		event.x = x;
+		event.y = y;
+		event.commit();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
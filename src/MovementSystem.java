@@ -0,0 +1,77 @@
+/**
+ * MovementSystem class, moves a moving unit in the EntityStore toward its
+ * destination. Run for every unit by the UnitPhase. Engineers carrying
+ * cargo follow the flow field toward their Command Centre, unless the
+ * player has sent them elsewhere, others move in a straight line. Units stop when they arrive, or when the next step
+ * would take them onto a solid tile.
+ */
+public class MovementSystem {
+	
+	/*------------------------ MovementSystem Methods ------------------------*/
+	/** Moves a single unit. Uses the distance and direction to its 
+	 * destination, and the world's delta, to progressively move it there.
+	 * Only the store is written, as units may be moved from several threads
+	 * at once; the World re-files moved units in its spatial hash after.
+	 * @param world, the world passing delta and the map.
+	 * @param store, the store holding the unit.
+	 * @param id, the id of the unit.
+	 * @param speed, the speed at which the unit should move.
+	 */
+	public static void move(World world, EntityStore store, int id, float speed) {
+		int delta = world.getDelta();
+		float x = store.x[id];
+		float y = store.y[id];
+		
+		//calculate the distance to the destination from current position
+		double distance = Position.distance(x, y, store.destX[id], store.destY[id]);
+		
+		//head for the next tile of the flow field, if following one, which
+		//is only while still heading for the centre findCentre chose
+		float targetX = store.destX[id];
+		float targetY = store.destY[id];
+		int goal = store.resolve(store.goal[id]);
+		if (store.cargo[id] != EntityStore.NONE && goal >= 0
+				&& store.x[goal] == targetX && store.y[goal] == targetY) {
+			FlowField field = world.getFlowField(goal);
+			if (field != null) {
+				int next = field.next((int)(x / World.TILE_SIZE),
+						(int)(y / World.TILE_SIZE));
+				if (next >= 0) {
+					targetX = (next % field.getWidth() + 0.5f) * World.TILE_SIZE;
+					targetY = (next / field.getWidth() + 0.5f) * World.TILE_SIZE;
+				}
+			}
+		}
+		
+		//If close to destination, stop moving
+		if (distance <= Moveable.STOP_DIST) {
+			store.setFlag(id, EntityStore.MOVING, false);
+			
+		//Otherwise, get direction and move a small distance toward it.
+		} else {
+			double direction = Position.direction(x, y, targetX, targetY);
+			
+			// Calculate the appropriate dx and dy distances
+			double dx = Math.cos(direction) * delta * speed;
+			double dy = Math.sin(direction) * delta * speed;
+			
+			// Check the tile is free before moving; otherwise, we stop moving
+			if (world.isPositionFree(x + dx, y + dy)) {
+				float newX = (float)(x + dx);
+				float newY = (float)(y + dy);
+				if (newX >= 0) {
+					store.x[id] = newX;
+				}
+				if (newY >= 0) {
+					store.y[id] = newY;
+				}
+			} else {
+				store.setFlag(id, EntityStore.MOVING, false);
+				MoveBlockedEvent.emit(store.type[id], x, y);
+			}
+		}
+	}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
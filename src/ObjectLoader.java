@@ -0,0 +1,390 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * ObjectLoader class, streams the initial Sprites of a World from a file
+ * mapped into memory. Text files hold one "type,x,y" line per Sprite, as in
+ * assets/objects.csv, and are parsed byte by byte without building a String
+ * per line. Binary files hold the same records compactly, and are told apart
+ * by their header. Bad lines are skipped and reported with their line
+ * number, rather than aborting the load.
+ *
+ * The binary format is the MAGIC int, the VERSION int and a record count,
+ * followed by one record per Sprite of a type code byte and int x and y
+ * coordinates, all big-endian.
+ *
+ * Usage: java ObjectLoader [text file] [binary file], converts text to binary
+ */
+public class ObjectLoader {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** First four bytes of a binary objects file, "SBOB" */
+	public static final int MAGIC = 0x53424F42;
+	/** Version of the binary format written */
+	public static final int VERSION = 1;
+	/** Bytes in a binary record */
+	private static final int RECORD_SIZE = 9;
+	/** Most errors kept, so a garbage file cannot exhaust memory */
+	private static final int MAX_ERRORS = 100;
+	/** Type names as bytes, indexed by EntityStore type code */
+	private static final byte[][] TYPE_NAMES = new byte[EntityStore.NAMES.length][];
+	static {
+		for (int i = 1; i < TYPE_NAMES.length; i++) {
+			TYPE_NAMES[i] = EntityStore.NAMES[i].getBytes();
+		}
+	}
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Errors found by the last load, each prefixed with its line or record */
+	private final ArrayList<String> errors = new ArrayList<>();
+	/** Number of errors found by the last load, including any not kept */
+	private int errorCount;
+
+	/*------------------------- ObjectLoader Methods -------------------------*/
+	/** Loads every Sprite in a file into a World, reporting any errors to
+	 * standard error.
+	 * @param path, the path of the text or binary file.
+	 * @param world, the World to create the Sprites in.
+	 * @return int number of Sprites created.
+	 */
+	public int load(String path, final World world) throws SlickException {
+		int loaded = read(path, new Sink() {
+			@Override
+			public void accept(int type, int x, int y) throws SlickException {
+				world.createSprite(EntityStore.NAMES[type], x, y);
+			}
+		});
+		for (String error : errors) {
+			System.err.println(error);
+		}
+		if (errorCount > errors.size()) {
+			System.err.printf("%s: %d more errors%n", path, errorCount - errors.size());
+		}
+		return loaded;
+	}
+
+	/** Errors getter.
+	 * @return ArrayList of the errors found by the last load.
+	 */
+	public ArrayList<String> getErrors() {
+		return errors;
+	}
+
+	/** Start-up method, converts a text objects file to the binary format.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws IOException, SlickException {
+		String in = args.length > 0 ? args[0] : World.CSV_NAME;
+		String out = args.length > 1 ? args[1] : in.replaceAll("\\.csv$", "") + ".bin";
+		ObjectLoader loader = new ObjectLoader();
+		int count = loader.convert(in, out);
+		for (String error : loader.getErrors()) {
+			System.err.println(error);
+		}
+		System.out.printf("Wrote %d records to %s%n", count, out);
+	}
+
+	/** Converts a text objects file to the binary format. Bad lines are
+	 * left out, and kept in the errors.
+	 * @param in, the path of the text file.
+	 * @param out, the path of the binary file to write.
+	 * @return int number of records written.
+	 */
+	public int convert(String in, String out) throws IOException, SlickException {
+		ByteArrayRecords records = new ByteArrayRecords();
+		read(in, records);
+		try (DataOutputStream data = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(out)))) {
+			data.writeInt(MAGIC);
+			data.writeInt(VERSION);
+			data.writeInt(records.count);
+			data.write(records.bytes, 0, records.count * RECORD_SIZE);
+		}
+		return records.count;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Maps a file into memory, and parses it as text or binary.
+	 * @param path, the path of the file.
+	 * @param sink, given every record parsed.
+	 * @return int number of records given to the sink.
+	 */
+	private int read(String path, Sink sink) throws SlickException {
+		errors.clear();
+		errorCount = 0;
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(Paths.get(path),
+				StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			throw new SlickException("Failed to read objects file " + path, e);
+		}
+		if (buffer.limit() >= 4 && buffer.getInt(0) == MAGIC) {
+			return readBinary(buffer, path, sink);
+		}
+		return readText(buffer, path, sink);
+	}
+
+	/** Parses a text file, line by line.
+	 * @param buffer, the mapped file.
+	 * @param path, the path of the file, for errors.
+	 * @param sink, given every record parsed.
+	 * @return int number of records given to the sink.
+	 */
+	private int readText(MappedByteBuffer buffer, String path, Sink sink)
+			throws SlickException {
+		int limit = buffer.limit();
+		int loaded = 0;
+		int line = 1;
+		int[] field = new int[2];
+		for (int pos = 0; pos < limit; line++) {
+			//find the end of the line, not counting a carriage return
+			int end = pos;
+			while (end < limit && buffer.get(end) != '\n') {
+				end++;
+			}
+			int next = end + 1;
+			if (end > pos && buffer.get(end - 1) == '\r') {
+				end--;
+			}
+
+			if (!isBlank(buffer, pos, end)) {
+				int comma1 = indexOf(buffer, pos, end, (byte) ',');
+				int comma2 = comma1 < 0 ? -1 : indexOf(buffer, comma1 + 1, end, (byte) ',');
+				int type;
+				if (comma2 < 0) {
+					error(path, line, "expected type,x,y");
+				} else if ((type = typeOf(buffer, pos, comma1)) == EntityStore.NONE) {
+					error(path, line, "unknown type '"
+							+ text(buffer, pos, comma1).trim() + "'");
+				} else if (!parseInt(buffer, comma1 + 1, comma2, field, 0)
+						|| !parseInt(buffer, comma2 + 1, end, field, 1)) {
+					error(path, line, "bad coordinate in '"
+							+ text(buffer, comma1 + 1, end).trim() + "'");
+				} else {
+					sink.accept(type, field[0], field[1]);
+					loaded++;
+				}
+			}
+			pos = next;
+		}
+		return loaded;
+	}
+
+	/** Parses a binary file, record by record.
+	 * @param buffer, the mapped file.
+	 * @param path, the path of the file, for errors.
+	 * @param sink, given every record parsed.
+	 * @return int number of records given to the sink.
+	 */
+	private int readBinary(MappedByteBuffer buffer, String path, Sink sink)
+			throws SlickException {
+		if (buffer.limit() < 12) {
+			throw new SlickException(path + ": truncated header");
+		}
+		int version = buffer.getInt(4);
+		if (version != VERSION) {
+			throw new SlickException(path + ": unsupported version " + version);
+		}
+		int count = buffer.getInt(8);
+		int available = (buffer.limit() - 12) / RECORD_SIZE;
+		if (count > available) {
+			error(path, available + 1, "truncated, " + count + " records expected");
+			count = available;
+		}
+
+		int loaded = 0;
+		for (int i = 0; i < count; i++) {
+			int at = 12 + i * RECORD_SIZE;
+			int type = buffer.get(at);
+			if (type <= EntityStore.NONE || type >= EntityStore.NAMES.length) {
+				error(path, i + 1, "unknown type code " + type);
+				continue;
+			}
+			sink.accept(type, buffer.getInt(at + 1), buffer.getInt(at + 5));
+			loaded++;
+		}
+		return loaded;
+	}
+
+	/** Records an error, keeping at most MAX_ERRORS.
+	 * @param path, the path of the file.
+	 * @param line, the line or record number.
+	 * @param message, what was wrong.
+	 */
+	private void error(String path, int line, String message) {
+		errorCount++;
+		if (errors.size() < MAX_ERRORS) {
+			errors.add(path + ":" + line + ": " + message);
+		}
+	}
+
+	/** Matches a field against every type name, ignoring surrounding spaces.
+	 * @param buffer, the mapped file.
+	 * @param from, start of the field.
+	 * @param to, end of the field, exclusive.
+	 * @return int type code of the name, NONE if unknown.
+	 */
+	private static int typeOf(MappedByteBuffer buffer, int from, int to) {
+		while (from < to && buffer.get(from) == ' ') {
+			from++;
+		}
+		while (to > from && buffer.get(to - 1) == ' ') {
+			to--;
+		}
+		for (int type = 1; type < TYPE_NAMES.length; type++) {
+			byte[] name = TYPE_NAMES[type];
+			if (name.length != to - from) {
+				continue;
+			}
+			int i = 0;
+			while (i < name.length && buffer.get(from + i) == name[i]) {
+				i++;
+			}
+			if (i == name.length) {
+				return type;
+			}
+		}
+		return EntityStore.NONE;
+	}
+
+	/** Parses a signed decimal int field, ignoring surrounding spaces.
+	 * @param buffer, the mapped file.
+	 * @param from, start of the field.
+	 * @param to, end of the field, exclusive.
+	 * @param out, array to store the result in.
+	 * @param index, index in out to store the result at.
+	 * @return boolean, false if the field is not a valid int.
+	 */
+	private static boolean parseInt(MappedByteBuffer buffer, int from, int to,
+			int[] out, int index) {
+		while (from < to && buffer.get(from) == ' ') {
+			from++;
+		}
+		while (to > from && buffer.get(to - 1) == ' ') {
+			to--;
+		}
+		boolean negative = from < to && buffer.get(from) == '-';
+		if (negative) {
+			from++;
+		}
+		if (from == to) {
+			return false;
+		}
+		long value = 0;
+		for (int i = from; i < to; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return false;
+			}
+			value = value * 10 + digit;
+			if (value > Integer.MAX_VALUE) {
+				return false;
+			}
+		}
+		out[index] = (int) (negative ? -value : value);
+		return true;
+	}
+
+	/** Finds the first occurrence of a byte.
+	 * @param buffer, the mapped file.
+	 * @param from, where to start looking.
+	 * @param to, where to stop looking, exclusive.
+	 * @param b, the byte to find.
+	 * @return int index of the byte, or -1 if not found.
+	 */
+	private static int indexOf(MappedByteBuffer buffer, int from, int to, byte b) {
+		for (int i = from; i < to; i++) {
+			if (buffer.get(i) == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** Whether a range holds only spaces and tabs.
+	 * @param buffer, the mapped file.
+	 * @param from, start of the range.
+	 * @param to, end of the range, exclusive.
+	 * @return boolean, true if blank.
+	 */
+	private static boolean isBlank(MappedByteBuffer buffer, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (buffer.get(i) != ' ' && buffer.get(i) != '\t') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Copies a range into a String, only used for error messages.
+	 * @param buffer, the mapped file.
+	 * @param from, start of the range.
+	 * @param to, end of the range, exclusive.
+	 * @return String of the range.
+	 */
+	private static String text(MappedByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(from + i);
+		}
+		return new String(bytes);
+	}
+
+	/*---------------------------- Helper Types ------------------------------*/
+	/** Receives each record parsed. */
+	private interface Sink {
+		/** Accepts a record.
+		 * @param type, the EntityStore type code.
+		 * @param x, the x coordinate.
+		 * @param y, the y coordinate.
+		 */
+		void accept(int type, int x, int y) throws SlickException;
+	}
+
+	/** Sink packing records into binary form in memory. */
+	private static class ByteArrayRecords implements Sink {
+		/** Packed records */
+		byte[] bytes = new byte[RECORD_SIZE * 1024];
+		/** Number of records packed */
+		int count;
+
+		@Override
+		public void accept(int type, int x, int y) {
+			int at = count * RECORD_SIZE;
+			if (at + RECORD_SIZE > bytes.length) {
+				byte[] grown = new byte[bytes.length * 2];
+				System.arraycopy(bytes, 0, grown, 0, at);
+				bytes = grown;
+			}
+			bytes[at] = (byte) type;
+			putInt(bytes, at + 1, x);
+			putInt(bytes, at + 5, y);
+			count++;
+		}
+
+		/** Writes a big-endian int into an array.
+		 * @param bytes, the array.
+		 * @param at, index of the first byte.
+		 * @param value, the int to write.
+		 */
+		private static void putInt(byte[] bytes, int at, int value) {
+			bytes[at] = (byte) (value >>> 24);
+			bytes[at + 1] = (byte) (value >>> 16);
+			bytes[at + 2] = (byte) (value >>> 8);
+			bytes[at + 3] = (byte) value;
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
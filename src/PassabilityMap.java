@@ -0,0 +1,176 @@
+import java.util.Arrays;
+
+/**
+ * PassabilityMap class, the "solid" and "occupied" properties of every tile
+ * of a GameMap, decoded once when the World is created and packed into
+ * bitsets of one bit per tile. Movement and build checks are then single
+ * bit tests, rather than a tile id lookup and a string keyed property lookup
+ * every time.
+ *
+ * The bits are kept in square pages of ChunkedGameMap.CHUNK_TILES tiles, one
+ * long a row of a page. Pages with no bit set are not allocated, and pages
+ * with every bit set share one array, so open ground and solid rock cost
+ * next to nothing on a large map.
+ */
+public class PassabilityMap {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Name of the tile property marking tiles units cannot move onto */
+	public static final String SOLID = "solid";
+	/** Name of the tile property marking tiles that cannot be built on */
+	public static final String OCCUPIED = "occupied";
+	/** Flags of a tile id while decoding: its properties have been read, it
+	 * is solid, it is occupied */
+	private static final int KNOWN = 1, SOLID_FLAG = 2, OCCUPIED_FLAG = 4;
+	/** Width and height of a page as a power of two, 64 so a row is a long */
+	private static final int SHIFT = ChunkedGameMap.CHUNK_SHIFT;
+	/** Width and height of a page, in tiles */
+	private static final int PAGE = 1 << SHIFT;
+	/** Shared page of a page with every bit set, never written */
+	private static final long[] FULL = filledPage();
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Width and height of the map in tiles */
+	private final int width, height;
+	/** Number of page columns */
+	private final int columns;
+	/** Pages of solid and occupied tiles, indexed by page column + page row *
+	 * columns, null if no tile in the page is set */
+	private final long[][] solid, occupied;
+
+	/*------------------------ PassabilityMap Methods ------------------------*/
+	/** PassabilityMap Constructor. Reads the properties of every tile on the
+	 * bottom layer of a map a page at a time, which is a ChunkedGameMap chunk
+	 * so that each chunk is paged in once, and each tile id's properties only
+	 * once.
+	 * @param map, the map to decode.
+	 */
+	public PassabilityMap(GameMap map) {
+		this.width = map.getWidth();
+		this.height = map.getHeight();
+		this.columns = (width + PAGE - 1) >> SHIFT;
+		int rows = (height + PAGE - 1) >> SHIFT;
+		this.solid = new long[columns * rows][];
+		this.occupied = new long[columns * rows][];
+
+		//flags of each tile id seen, by id: KNOWN, then SOLID_FLAG and OCCUPIED_FLAG
+		byte[] flags = new byte[64];
+		long[] solidPage = new long[PAGE];
+		long[] occupiedPage = new long[PAGE];
+		for (int page = 0; page < solid.length; page++) {
+			int left = (page % columns) << SHIFT;
+			int top = (page / columns) << SHIFT;
+			Arrays.fill(solidPage, 0);
+			Arrays.fill(occupiedPage, 0);
+			for (int y = top; y < Math.min(height, top + PAGE); y++) {
+				for (int x = left; x < Math.min(width, left + PAGE); x++) {
+					int tileId = map.getTileId(x, y, 0);
+					if (tileId >= flags.length) {
+						flags = Arrays.copyOf(flags, Math.max(tileId + 1, flags.length * 2));
+					}
+					if (flags[tileId] == 0) {
+						flags[tileId] = (byte) (KNOWN
+								| (isSet(map, tileId, SOLID) ? SOLID_FLAG : 0)
+								| (isSet(map, tileId, OCCUPIED) ? OCCUPIED_FLAG : 0));
+					}
+					if ((flags[tileId] & SOLID_FLAG) != 0) {
+						solidPage[y - top] |= 1L << (x - left);
+					}
+					if ((flags[tileId] & OCCUPIED_FLAG) != 0) {
+						occupiedPage[y - top] |= 1L << (x - left);
+					}
+				}
+			}
+			solid[page] = share(solidPage);
+			occupied[page] = share(occupiedPage);
+		}
+	}
+
+	/** Whether a tile is solid. Tiles off the map are not, as the map has no
+	 * tile there to mark them.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @return boolean, true if units cannot move onto the tile.
+	 */
+	public boolean isSolid(int x, int y) {
+		return test(solid, x, y);
+	}
+
+	/** Whether a tile is occupied. Tiles off the map are not, as the map has
+	 * no tile there to mark them.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @return boolean, true if nothing can be built on the tile.
+	 */
+	public boolean isOccupied(int x, int y) {
+		return test(occupied, x, y);
+	}
+
+	/*-------------------------- Getters & Setters ---------------------------*/
+	/** Width getter.
+	 * @return int width of the map in tiles.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/** Height getter.
+	 * @return int height of the map in tiles.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Reads a boolean tile property.
+	 * @param map, the map.
+	 * @param tileId, the global id of the tile.
+	 * @param name, the name of the property.
+	 * @return boolean, true if the property is "true".
+	 */
+	private static boolean isSet(GameMap map, int tileId, String name) {
+		return Boolean.parseBoolean(map.getTileProperty(tileId, name, "false"));
+	}
+
+	/** Makes a page to keep from one just decoded.
+	 * @param page, the decoded page, reused for the next.
+	 * @return long[] null if no bit is set, FULL if every bit is, or a copy.
+	 */
+	private static long[] share(long[] page) {
+		if (Arrays.equals(page, FULL)) {
+			return FULL;
+		}
+		for (int row = 0; row < PAGE; row++) {
+			if (page[row] != 0) {
+				return page.clone();
+			}
+		}
+		return null;
+	}
+
+	/** Makes the page with every bit set.
+	 * @return long[] the page.
+	 */
+	private static long[] filledPage() {
+		long[] page = new long[PAGE];
+		Arrays.fill(page, -1L);
+		return page;
+	}
+
+	/** Reads the bit of a tile from a set of pages.
+	 * @param pages, the pages to read.
+	 * @param x, x coordinate in tiles.
+	 * @param y, y coordinate in tiles.
+	 * @return boolean, true if the bit is set.
+	 */
+	private boolean test(long[][] pages, int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return false;
+		}
+		long[] page = pages[(x >> SHIFT) + (y >> SHIFT) * columns];
+		return page != null && (page[y & PAGE - 1] & (1L << x)) != 0;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
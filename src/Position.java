@@ -24,8 +24,8 @@ public class Position {
 	 * @return double distance between this and other.
 	 */
 	public double distance(Position other) {
-		return (Math.sqrt(Math.pow(other.getX() - this.x, 2)
-				   + Math.pow(other.getY() - this.y, 2)));
+		return (Math.sqrt(square(other.getX() - this.x)
+				   + square(other.getY() - this.y)));
 	}
 	
 	/** direction method, from this position to another.
@@ -82,8 +82,8 @@ public class Position {
 	 * @return double distance between from and to.
 	 */
 	public static double distance(Position from, Position to) {
-		return (Math.sqrt(Math.pow(to.getX() - from.getX(), 2)
-				   + Math.pow(to.getY() - from.getY(), 2)));
+		return (Math.sqrt(square(to.getX() - from.getX())
+				   + square(to.getY() - from.getY())));
 	}
 	
 	/** distance method, between a position and an x and y coordinate pair.
@@ -93,8 +93,8 @@ public class Position {
 	 * @return double distance between from position and to pair.
 	 */
 	public static double distance(Position from, float toX, float toY) {
-		return (Math.sqrt(Math.pow(toX - from.getX(), 2)
-				   + Math.pow(toY - from.getY(), 2)));
+		return (Math.sqrt(square(toX - from.getX())
+				   + square(toY - from.getY())));
 	}
 	
 	/** distance method, between two separate x & y coordinate pairs.
@@ -106,8 +106,8 @@ public class Position {
 	 */
 	public static double distance(float fromX, float fromY, 
 			float toX,float toY) {
-		return (Math.sqrt(Math.pow(toX - fromX, 2)
-				   + Math.pow(toY - fromY, 2)));
+		return (Math.sqrt(square(toX - fromX)
+				   + square(toY - fromY)));
 	}
 
 	/** direction method, from a coordinate pair to a position.
@@ -133,6 +133,14 @@ public class Position {
 		return(Math.atan2(otherY-thisY,otherX-thisX));
 	}
 	
+	/** square method, used by the distance methods in place of Math.pow.
+	 * @param value
+	 * @return double value multiplied by itself.
+	 */
+	private static double square(double value) {
+		return value * value;
+	}
+	
 	/*------------------------------------------------------------------------*/
 	
 }
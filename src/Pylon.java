@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-
 import org.newdawn.slick.SlickException;
 
 /**
@@ -14,29 +12,37 @@ public class Pylon extends Building {
 	/** String storing the inactive pylon image path */
 	public static final String INACT_IMG="assets/buildings/pylon.png";
 	
-	/* ------------------------- Instance Variables --------------------------*/
-	/** boolean variable determining whether an instance is active or not */
-	private boolean active = false;
-
 	/*--------------------------- Pylon Methods ------------------------------*/
     /** Pylon Constructor.
      * @param x, the final x coordinate of the Pylon.
      * @param y, the final y coordinate of the Pylon.
      * @param camera, the camera which will handle it's rendered location.
+     * @param store, the store to create the Pylon's entity in.
      */
-	public Pylon(float x, float y, Camera camera) throws SlickException {
-		super(x, y, camera);
+	public Pylon(float x, float y, Camera camera, EntityStore store) 
+			throws SlickException {
+		super(x, y, camera, store, EntityStore.PYLON);
+		reset();
+		//load the active image now, so activating reads no file
+		Sprite.loadImage(ACT_IMG);
+	}
+	
+	/** Reset hook, the Pylon starts inactive.
+	 */
+	@Override
+	protected void reset() throws SlickException {
+		super.reset();
 		this.setImage(INACT_IMG);
-		
 	}
 	
-	/** Method called by update, whence a unit is close to the pylon's position.
-	 * This method then increases the allowance of all engineers, and sets
-	 * itself to active, changing it's image in the process
+	/** Method called by the pylon system, whence a unit is close to the 
+	 * pylon's position. This method then increases the allowance of all 
+	 * engineers, and sets itself to active, changing it's image in the process
+	 * @param world, the world holding the engineer allowance.
 	 */
-	private void activate() {
-		Engineer.allowance++;
-		active=true;
+	public void activate(World world) {
+		world.increaseAllowance();
+		store.setFlag(id, EntityStore.ACTIVE, true);
 		try {
 			this.setImage(ACT_IMG);
 		} catch (SlickException e) {
@@ -49,31 +55,17 @@ public class Pylon extends Building {
 	 * @return state, active or inactive (true or false)
 	 */
 	public boolean isActive() {
-		return active;
+		return store.hasFlag(id, EntityStore.ACTIVE);
 	}
 
 
 	/*---------------------- Inherited Sprite Methods ------------------------*/
-    /**	Update method checks, for all units, whether or not there is one within
-     * TOLERANCE of it's position, and activates if so.
-     * @param world, the world object passing through it's stored units.
+    /**	Update method, Pylons take no commands. Activation is handled by the
+     * pylon system.
+     * @param world, the world object.
      */
 	@Override
-	public void update(World world) {
-		//While inactive
-		if (!active) {
-			ArrayList<Unit> units=world.getUnits();
-			//For all units
-			for (Unit u: units) {
-				//Are they close enough
-				if (Position.distance(this.getPosition(), u.getPosition())
-						< Selectable.TOLERANCE) {
-					//If yes, activate
-					this.activate();
-				}
-			}
-		}
-	}
+	public void update(World world) {}
 	
 	/*------------------------------------------------------------------------*/
 	
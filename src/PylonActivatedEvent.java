@@ -0,0 +1,47 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * PylonActivatedEvent class, a Java Flight Recorder event for a Pylon activated by a
+ * nearby unit.
+ * Only created while a recording has the event enabled, so costs nothing
+ * otherwise.
+ */
+@Name("shadowbuild.PylonActivated")
+@Label("Pylon Activated")
+@Category("Shadow Build")
+@StackTrace(false)
+public class PylonActivatedEvent extends Event {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** The event's type, read to check whether it is enabled */
+	private static final EventType TYPE = EventType.getEventType(PylonActivatedEvent.class);
+
+	/* ------------------------- Instance Variables --------------------------*/
+	@Label("Unit")
+	private String unit;
+	@Label("Allowance")
+	private int allowance;
+
+	/*--------------------- PylonActivatedEvent Methods ----------------------*/
+	/** Commits the event, if it is enabled.
+	 * @param unit, the EntityStore type code of the unit that activated it.
+	 * @param allowance, the Engineer allowance after activation.
+	 */
+	public static void emit(int unit, int allowance) {
+		if (!TYPE.isEnabled()) {
+			return;
+		}
+		PylonActivatedEvent event = new PylonActivatedEvent();
+		event.unit = EntityStore.NAMES[unit];
+		event.allowance = allowance;
+		event.commit();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
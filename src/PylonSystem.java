@@ -0,0 +1,35 @@
+import java.util.ArrayList;
+
+/**
+ * PylonSystem class, activates any inactive Pylon in the EntityStore with
+ * a unit within TOLERANCE of it, iterating the store's set of Pylons.
+ */
+public class PylonSystem {
+	
+	/*------------------------- PylonSystem Methods --------------------------*/
+	/** Checks every inactive Pylon for nearby units.
+	 * @param world, the world answering proximity queries.
+	 */
+	public static void update(World world) {
+		EntityStore store = world.getStore();
+		EntitySet pylons = store.ofType(EntityStore.PYLON);
+		for (int id = pylons.next(0); id >= 0; id = pylons.next(id + 1)) {
+			if (!store.hasFlag(id, EntityStore.ACTIVE)) {
+				ArrayList<Sprite> near = world.queryRadius(store.x[id],
+						store.y[id], Selectable.TOLERANCE);
+				//If a unit is close enough, activate
+				for (int i = 0; i < near.size(); i++) {
+					if (EntityStore.isUnit(near.get(i).getEntityType())) {
+						((Pylon) store.views[id]).activate(world);
+						PylonActivatedEvent.emit(near.get(i).getEntityType(),
+								world.getAllowance());
+						break;
+					}
+				}
+			}
+		}
+	}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
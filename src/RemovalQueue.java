@@ -0,0 +1,57 @@
+/**
+ * RemovalQueue class, a first in first out ring of the handles of entities
+ * waiting to be destroyed. The World marks an entity as it queues it, so
+ * each is queued at most once and the ring never holds more handles than
+ * there are entities. Handles that have gone stale by the time they are
+ * taken out are recognised by the EntityStore, and skipped.
+ */
+public class RemovalQueue {
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The ring of handles */
+	private int[] handles = new int[64];
+	/** Position of the oldest handle in the ring */
+	private int head = 0;
+	/** Number of handles in the ring */
+	private int count = 0;
+
+	/*------------------------- RemovalQueue Methods -------------------------*/
+	/** Adds a handle to the back of the queue, growing the ring if full.
+	 * @param handle, the handle of the entity to destroy.
+	 */
+	public void offer(int handle) {
+		if (count == handles.length) {
+			int[] grown = new int[handles.length * 2];
+			for (int i = 0; i < count; i++) {
+				grown[i] = handles[(head + i) % handles.length];
+			}
+			handles = grown;
+			head = 0;
+		}
+		handles[(head + count) % handles.length] = handle;
+		count++;
+	}
+
+	/** Takes the handle at the front of the queue.
+	 * @return int handle, or EntityStore.NO_HANDLE if the queue is empty.
+	 */
+	public int poll() {
+		if (count == 0) {
+			return EntityStore.NO_HANDLE;
+		}
+		int handle = handles[head];
+		head = (head + 1) % handles.length;
+		count--;
+		return handle;
+	}
+
+	/** Size getter.
+	 * @return int number of handles waiting.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,81 @@
+import java.io.IOException;
+
+import org.newdawn.slick.Input;
+import org.newdawn.slick.SlickException;
+
+/**
+ * Replay class, re-simulates a session from its input log with no window,
+ * as fast as the CPU allows. The World is rebuilt from the map and the
+ * objects or save file the session started from, and given the logged
+ * input tick by tick, so it passes through the same states as the session
+ * did. Used to reproduce bugs from long sessions, and to profile them; the
+ * phase times of the last ticks can be written as CSV once finished.
+ *
+ * Usage: java Replay [log] [threads] [profile.csv]
+ */
+public class Replay {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Nanoseconds between progress reports */
+	private static final long REPORT_INTERVAL = 1000000000L;
+
+	/*---------------------------- Replay Methods ----------------------------*/
+	/** Start-up method. Replays the log, printing the ticks per second
+	 * achieved every second, and the state of the World once finished,
+	 * writing the profiler's phase times if a CSV path is given.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws IOException, SlickException {
+		String log = args.length > 0 ? args[0] : InputRecorder.LOG_NAME;
+		ReplayInput input = new ReplayInput(log);
+
+		World world;
+		if (input.isSave()) {
+			world = Snapshot.restore(input.getStart(), Headless.openMap(input.getMap()),
+					new HeadlessImageLoader());
+		} else {
+			world = new World(Headless.openMap(input.getMap()),
+					new HeadlessImageLoader(), input.getStart());
+		}
+		if (args.length > 1) {
+			world.setThreads(Integer.parseInt(args[1]));
+		}
+
+		long start = System.nanoTime();
+		long lastReport = start;
+		int tick = 0, lastTick = 0;
+		long gameTime = 0;
+		while (input.next(world)) {
+			//the session ended here, and the World would exit
+			if (input.isKeyDown(Input.KEY_ESCAPE)) {
+				break;
+			}
+			world.update(input, input.getDelta());
+			tick++;
+			gameTime += input.getDelta();
+
+			long now = System.nanoTime();
+			if (now - lastReport >= REPORT_INTERVAL) {
+				System.out.printf("tick %d: %.0f ticks/s%n", tick,
+						(tick - lastTick) * 1e9 / (now - lastReport));
+				lastReport = now;
+				lastTick = tick;
+			}
+		}
+		input.close();
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d ticks (%.1f s of play) in %.3f s: %.0fx real time%n",
+				tick, gameTime / 1000.0, seconds, gameTime / 1000.0 / seconds);
+		System.out.printf("Metal: %d, Unobtainium: %d, Units: %d, Buildings: %d%n",
+				world.getMetal(), world.getUnobtainium(), world.getUnits().size(),
+				world.getBuildings().size());
+		if (args.length > 2) {
+			world.getProfiler().writeCsv(args[2]);
+		}
+		world.close();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
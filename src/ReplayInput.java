@@ -0,0 +1,123 @@
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ReplayInput class, reads an input log written by the InputRecorder back
+ * one tick at a time, as the LatchedInput the World was given when it was
+ * recorded. A log cut short, as by a crash, ends at its last whole tick.
+ */
+public class ReplayInput extends LatchedInput {
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The log being read */
+	private final InputStream in;
+	/** Path of the World's map */
+	private final String map;
+	/** Path of the file the World started from */
+	private final String start;
+	/** Whether the World started from a save file */
+	private final boolean save;
+	/** Delta of the current tick */
+	private int delta = 0;
+	/** Ticks left in the current run of idle ticks */
+	private int idle = 0;
+
+	/*------------------------- ReplayInput Methods --------------------------*/
+	/** ReplayInput Constructor. Reads the header of the log.
+	 * @param path, the path of the log.
+	 */
+	public ReplayInput(String path) throws IOException {
+		in = new BufferedInputStream(new FileInputStream(path));
+		int magic = 0;
+		for (int i = 0; i < 4; i++) {
+			magic = magic << 8 | in.read();
+		}
+		if (magic != MAGIC) {
+			in.close();
+			throw new IOException(path + " is not an input log");
+		}
+		int version = readVarint(in);
+		if (version != VERSION) {
+			in.close();
+			throw new IOException(path + " has unsupported version " + version);
+		}
+		map = readString(in);
+		start = readString(in);
+		save = readVarint(in) != 0;
+	}
+
+	/** Moves on to the next tick of the log.
+	 * @param world, the World about to be updated, whose camera places
+	 * clicks back on the screen.
+	 * @return boolean, false once the log has ended.
+	 */
+	public boolean next(World world) throws IOException {
+		mask = 0;
+		if (idle > 0) {
+			idle--;
+			return true;
+		}
+		try {
+			int entry = readVarint(in);
+			if ((entry & 1) == 0) {
+				idle = (entry >>> 1) - 1;
+				return true;
+			}
+			int tickMask = entry >>> 1;
+			int tickDelta = readVarint(in);
+			if (tickMask >>> CLICKED != 0) {
+				int clickX = readSigned(in);
+				int clickY = readSigned(in);
+				Camera camera = world.getCamera();
+				mouseX = (int) Math.ceil(clickX - camera.screenXToGlobalX(0));
+				mouseY = (int) Math.ceil(clickY - camera.screenYToGlobalY(0));
+			}
+			mask = tickMask;
+			delta = tickDelta;
+			return true;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/** Delta getter.
+	 * @return int milliseconds the current tick lasts.
+	 */
+	public int getDelta() {
+		return delta;
+	}
+
+	/** Map getter.
+	 * @return String path of the World's map.
+	 */
+	public String getMap() {
+		return map;
+	}
+
+	/** Start getter.
+	 * @return String path of the objects or save file the World started
+	 * from.
+	 */
+	public String getStart() {
+		return start;
+	}
+
+	/** Whether the World started from a save file.
+	 * @return boolean, true if getStart is a save file.
+	 */
+	public boolean isSave() {
+		return save;
+	}
+
+	/** Closes the log.
+	 */
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
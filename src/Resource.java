@@ -17,32 +17,34 @@ public class Resource extends Sprite {
 	/** String storing the path of the image for Unobtainium mines */
 	private static final String UNOB_IMG ="assets/resources/unobtainium_mine.png";
 	
-	/* ------------------------- Instance Variables --------------------------*/
-	/** String storing the type of a Resource instance */
-	private String type;
-	/** Int storing the capacity of the Resource at any given moment */
-	private int capacity;
-	
 	/*-------------------------- Resource Methods ----------------------------*/
 	/** Resource Constructor, determines the initial capacity, and Sprite image
 	 * from the passed input type. Sets location and passes the camera.
      * @param x, the final x coordinate of the Resource.
      * @param y, the final y coordinate of the Resource.
      * @param camera, the camera which will handle it's rendered location.
+     * @param store, the store to create the Resource's entity in.
 	 * @param type, the type of resource.
 	 */
-	public Resource(float x, float y, Camera camera, String type) throws SlickException {
-		super(x, y, camera);
-		if (type.equals(World.METAL)) {
-			this.setType(World.METAL);
-			this.capacity=METAL_CAPACITY;
+	public Resource(float x, float y, Camera camera, EntityStore store, 
+			String type) throws SlickException {
+		super(x, y, camera, store, EntityStore.typeOf(type));
+		reset();
+	}
+	
+	/** Reset hook, fills the Resource to the capacity of its type and sets
+	 * its image.
+	 */
+	@Override
+	protected void reset() throws SlickException {
+		super.reset();
+		if (getEntityType()==EntityStore.METAL) {
+			store.amount[id]=METAL_CAPACITY;
 			this.setImage(METAL_IMG);
-		} else if (type.equals(World.UNOBTAINIUM)) {
-			this.setType(World.UNOBTAINIUM);
-			this.capacity=UNOB_CAPACITY;
+		} else if (getEntityType()==EntityStore.UNOBTAINIUM) {
+			store.amount[id]=UNOB_CAPACITY;
 			this.setImage(UNOB_IMG);
 		}
-		
 	}
 	
 	/** Essentially a getter to determine whether the capacity has fallen 
@@ -50,7 +52,7 @@ public class Resource extends Sprite {
 	 * @return boolean, whether or not capacity is zero or less.
 	 */
 	public boolean isEmpty() {
-		if (this.capacity<=0) {
+		if (store.amount[id]<=0) {
 			return true;
 		} else {
 			return false;
@@ -59,14 +61,15 @@ public class Resource extends Sprite {
 	
 	/** Public deplete method, called by engineers whilst mining, to reduce
 	 * the capacity of a Resource mine and carry this reduction to a command
-	 * centre.
+	 * centre. An emptied mine is flagged DEPLETED.
 	 * @param reduction, the amount the engineer is taking.
 	 */
 	public void deplete(int reduction) {
-		if (this.capacity-reduction <= 0) {
-			this.capacity=0;
+		if (store.amount[id]-reduction <= 0) {
+			store.amount[id]=0;
+			store.setFlag(id, EntityStore.DEPLETED, true);
 		} else {
-			this.capacity -= reduction;
+			store.amount[id] -= reduction;
 		}
 	}
 	
@@ -75,15 +78,7 @@ public class Resource extends Sprite {
 	 * @return type, the String of the Resource type.
 	 */
 	public String getType() {
-		return type;
-	}
-
-	/** Private Type setter method used only upon construction, such that
-	 * the type of a Resource shouldn't be changed afterwards.
-	 * @param type, the type to be set to.
-	 */
-	private void setType(String type) {
-		this.type = type;
+		return EntityStore.NAMES[store.type[id]];
 	}
 	
 	/*---------------------- Inherited Sprite Methods ------------------------*/
@@ -92,20 +87,16 @@ public class Resource extends Sprite {
      */
 	@Override
 	public void render() {
-		this.getImage().drawCentered((int)camera.globalXToScreenX(this.getPosition().getX()),
-				(int)camera.globalYToScreenY(this.getPosition().getY()));	
+		this.getImage().drawCentered((int)camera.globalXToScreenX(this.getRenderX()),
+				(int)camera.globalYToScreenY(this.getRenderY()));	
 	}
 
-    /**	Update method checks for if the Resource is empty, so that it should be
-     * destroyed.
-     * @param world, to add the Resource to the remove cache if empty.
+    /**	Update method, Resources take no commands. Empty Resources are passed
+     * to the remove cache by the mining system.
+     * @param world, the world object.
      */
 	@Override
-	public void update(World world) {
-		if (this.isEmpty()) {
-			world.removeSprite(this);
-		}
-	}
+	public void update(World world) {}
 	
 	/*------------------------------------------------------------------------*/
 }
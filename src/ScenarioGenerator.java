@@ -0,0 +1,352 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * ScenarioGenerator class, generates a TMX map and a matching objects file
+ * from a seed, so that the same arguments always give the same scenario.
+ * Solid tiles are laid as rectangular rocks until the map has the solid
+ * density asked for, and every Command Centre, mine and Pylon is placed on a
+ * free tile of its own. Engineers are placed at the mines, so that they
+ * start mining straight away. The scenarios can be run with Headless or
+ * Replay, or loaded by the game.
+ *
+ * A tier gives the map size and counts for a standard stress scenario of
+ * about that many entities, most of them Engineers; explicit counts and
+ * sizes override it. The tier "all" writes every tier, each to the out
+ * path followed by "_" and the tier name. With map=chunks the map is
+ * written as a ChunkedGameMap file rather than TMX, for maps too large for
+ * one TMX file to load.
+ *
+ * Usage: java ScenarioGenerator [tier=1k|10k|100k|1m|all] [width=30]
+ *        [height=30] [solid=0.1] [seed=20030] [centres=1] [metal=8]
+ *        [unobtainium=4] [pylons=3] [engineers=1] [format=csv|bin]
+ *        [map=tmx|chunks] [tileset=assets/planet.tsx] [out=scenarios/scenario]
+ */
+public class ScenarioGenerator {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Names of the stress tiers */
+	public static final String[] TIERS = {"1k", "10k", "100k", "1m"};
+	/** Entities in each tier */
+	private static final int[] TIER_ENTITIES = {1000, 10000, 100000, 1000000};
+	/** Command Centres in each tier, kept few as each has a flow field the
+	 * size of the map */
+	private static final int[] TIER_CENTRES = {2, 4, 8, 16};
+	/** Global ids in the tileset of a free tile and a solid tile */
+	private static final int FLOOR_TILE = 1, SOLID_TILE = 38;
+	/** Largest width and height of a rock, in tiles */
+	private static final int MAX_ROCK = 8;
+	/** Default seed, so runs are comparable */
+	private static final long SEED = 20030L;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Width and height of the map in tiles */
+	private int width = 30, height = 30;
+	/** Fraction of tiles that are solid */
+	private double solid = 0.1;
+	/** Number of each kind of Sprite */
+	private int centres = 1, metal = 8, unobtainium = 4, pylons = 3,
+			engineers = 1;
+	/** Seed of the random source */
+	private long seed = SEED;
+	/** Path of the tileset the map uses */
+	private String tileset = "assets/planet.tsx";
+	/** Whether the map is written as a chunk file rather than TMX */
+	private boolean chunked = false;
+
+	/*------------------------ ScenarioGenerator Methods ---------------------*/
+	/** Start-up method. Writes the scenario or tiers asked for.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws IOException, SlickException {
+		String tier = null;
+		String out = "scenarios/scenario";
+		boolean binary = false;
+		for (String arg : args) {
+			String[] pair = arg.split("=", 2);
+			if (pair[0].equals("tier")) {
+				tier = pair[1];
+			} else if (pair[0].equals("out")) {
+				out = pair[1];
+			} else if (pair[0].equals("format")) {
+				binary = pair[1].equals("bin");
+			}
+		}
+
+		for (int i = 0; i < TIERS.length; i++) {
+			if (tier != null && (tier.equals("all") || tier.equals(TIERS[i]))) {
+				ScenarioGenerator generator = new ScenarioGenerator();
+				generator.setTier(i);
+				generator.configure(args);
+				generator.write(tier.equals("all") ? out + "_" + TIERS[i] : out,
+						binary);
+			}
+		}
+		if (tier == null) {
+			ScenarioGenerator generator = new ScenarioGenerator();
+			generator.configure(args);
+			generator.write(out, binary);
+		}
+	}
+
+	/** Sets the map size and counts to those of a stress tier. The map has
+	 * about as many tiles as the tier has entities. A tenth of the entities
+	 * are mines, seven in ten of them metal, a fiftieth are Pylons, and the
+	 * rest are Engineers.
+	 * @param tier, the index of the tier in TIERS.
+	 */
+	public void setTier(int tier) {
+		int entities = TIER_ENTITIES[tier];
+		width = height = Math.max(30, (int) Math.ceil(Math.sqrt(entities)));
+		centres = TIER_CENTRES[tier];
+		metal = entities / 10 * 7 / 10;
+		unobtainium = entities / 10 - metal;
+		pylons = entities / 50;
+		engineers = entities - centres - metal - unobtainium - pylons;
+	}
+
+	/** Sets any size, count, density, seed or tileset given as arguments.
+	 * @param args Command-line arguments, as in the class usage; the tier,
+	 * format and out path are read by main.
+	 */
+	public void configure(String[] args) {
+		for (String arg : args) {
+			String[] pair = arg.split("=", 2);
+			switch (pair[0]) {
+				case "width": width = Integer.parseInt(pair[1]); break;
+				case "height": height = Integer.parseInt(pair[1]); break;
+				case "solid": solid = Double.parseDouble(pair[1]); break;
+				case "seed": seed = Long.parseLong(pair[1]); break;
+				case "centres": centres = Integer.parseInt(pair[1]); break;
+				case "metal": metal = Integer.parseInt(pair[1]); break;
+				case "unobtainium": unobtainium = Integer.parseInt(pair[1]); break;
+				case "pylons": pylons = Integer.parseInt(pair[1]); break;
+				case "engineers": engineers = Integer.parseInt(pair[1]); break;
+				case "tileset": tileset = pair[1]; break;
+				case "map": chunked = pair[1].equals("chunks"); break;
+				case "tier": case "out": case "format": break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + arg);
+			}
+		}
+	}
+
+	/** Generates the scenario, and writes the map to the out path with a
+	 * ".tmx" or ChunkedGameMap.EXTENSION extension and the objects file with
+	 * a ".csv" extension.
+	 * @param out, the path of the files, without an extension.
+	 * @param binary, whether to also convert the objects to a ".bin" file.
+	 */
+	public void write(String out, boolean binary) throws IOException, SlickException {
+		int buildings = centres + metal + unobtainium + pylons;
+		if (buildings > width * height * (1 - solid)) {
+			throw new IllegalArgumentException(buildings + " buildings and mines"
+					+ " do not fit a " + width + "x" + height + " map");
+		}
+		Random random = new Random(seed);
+		File mapFile = new File(out + (chunked ? ChunkedGameMap.EXTENSION : ".tmx"));
+		if (mapFile.getAbsoluteFile().getParentFile() != null) {
+			mapFile.getAbsoluteFile().getParentFile().mkdirs();
+		}
+
+		BitSet solidTiles = layRocks(random);
+		if (chunked) {
+			writeChunks(mapFile, solidTiles);
+		} else {
+			writeMap(mapFile, solidTiles);
+		}
+		//tiles with a building or mine on them are taken
+		BitSet taken = (BitSet) solidTiles.clone();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(out + ".csv"))) {
+			place(writer, random, taken, World.COMMAND_CNTR, centres);
+			//with no mines, engineers share the first free tile
+			int[] mines = {taken.nextClearBit(0)};
+			if (metal + unobtainium > 0) {
+				mines = new int[metal + unobtainium];
+			}
+			for (int i = 0; i < metal + unobtainium; i++) {
+				mines[i] = freeTile(random, taken);
+				writer.println(line(i < metal ? World.METAL : World.UNOBTAINIUM,
+						mines[i]));
+			}
+			place(writer, random, taken, World.PYLON, pylons);
+			for (int i = 0; i < engineers; i++) {
+				writer.println(line(World.ENGINEER, mines[i % mines.length]));
+			}
+		}
+		if (binary) {
+			new ObjectLoader().convert(out + ".csv", out + ".bin");
+		}
+		System.out.printf("Wrote %s (%dx%d) and %s.csv (%d entities)%n",
+				mapFile, width, height, out, buildings + engineers);
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Lays rocks of random size at random places until the fraction of
+	 * solid tiles reaches the density asked for.
+	 * @param random, the random source.
+	 * @return BitSet of the solid tiles, indexed by x + y * width.
+	 */
+	private BitSet layRocks(Random random) {
+		BitSet tiles = new BitSet(width * height);
+		long target = (long) (solid * width * height);
+		while (tiles.cardinality() < target) {
+			int rockWidth = 1 + random.nextInt(Math.min(MAX_ROCK, width));
+			int rockHeight = 1 + random.nextInt(Math.min(MAX_ROCK, height));
+			int left = random.nextInt(width - rockWidth + 1);
+			int top = random.nextInt(height - rockHeight + 1);
+			for (int y = top; y < top + rockHeight; y++) {
+				tiles.set(left + y * width, left + rockWidth + y * width);
+			}
+		}
+		return tiles;
+	}
+
+	/** Writes the map as TMX, its one layer gzipped and base64 encoded as
+	 * Tiled writes it, using the tileset by a path relative to the map.
+	 * @param tmx, the file to write.
+	 * @param solidTiles, the solid tiles.
+	 */
+	private void writeMap(File tmx, BitSet solidTiles) throws IOException {
+		ByteBuffer ids = ByteBuffer.allocate(width * height * 4)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < width * height; i++) {
+			ids.putInt(solidTiles.get(i) ? SOLID_TILE : FLOOR_TILE);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			gzip.write(ids.array());
+		}
+		Path parent = tmx.getAbsoluteFile().toPath().getParent();
+		String source = parent.relativize(Paths.get(tileset).toAbsolutePath())
+				.toString().replace(File.separatorChar, '/');
+
+		try (PrintWriter writer = new PrintWriter(new FileWriter(tmx))) {
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			writer.printf("<map version=\"1.2\" orientation=\"orthogonal\""
+					+ " renderorder=\"right-down\" width=\"%d\" height=\"%d\""
+					+ " tilewidth=\"%d\" tileheight=\"%d\" infinite=\"0\">%n",
+					width, height, World.TILE_SIZE, World.TILE_SIZE);
+			writer.printf(" <tileset firstgid=\"1\" source=\"%s\"/>%n", source);
+			writer.printf(" <layer id=\"1\" name=\"Tile Layer 1\" width=\"%d\""
+					+ " height=\"%d\">%n", width, height);
+			writer.println("  <data encoding=\"base64\" compression=\"gzip\">");
+			writer.println("   " + Base64.getEncoder().encodeToString(bytes.toByteArray()));
+			writer.println("  </data>");
+			writer.println(" </layer>");
+			writer.println("</map>");
+		}
+	}
+
+	/** Writes the map as a chunk file, reading the tiles straight from the
+	 * solid tiles so the whole map is never held as ids.
+	 * @param file, the file to write.
+	 * @param solidTiles, the solid tiles.
+	 */
+	private void writeChunks(File file, final BitSet solidTiles) throws IOException {
+		ArrayList<Tileset> tilesets = new ArrayList<>();
+		try {
+			tilesets.add(Tileset.read(new File(tileset), 1));
+		} catch (Exception e) {
+			throw new IOException("Failed to read tileset " + tileset, e);
+		}
+		ChunkedGameMap.write(file.getPath(), new GameMap() {
+			@Override
+			public int getWidth() {
+				return width;
+			}
+
+			@Override
+			public int getHeight() {
+				return height;
+			}
+
+			@Override
+			public int getTileId(int x, int y, int layer) {
+				return solidTiles.get(x + y * width) ? SOLID_TILE : FLOOR_TILE;
+			}
+
+			@Override
+			public String getTileProperty(int tileId, String name, String def) {
+				return def;
+			}
+
+			@Override
+			public void prefetch(int tileX, int tileY, int width, int height) {
+			}
+
+			@Override
+			public void render(int x, int y) {
+			}
+
+			@Override
+			public void render(int x, int y, int tileX, int tileY, int width,
+					int height) {
+			}
+		}, 1, tilesets);
+	}
+
+	/** Places Sprites of a type on free tiles of their own.
+	 * @param writer, the objects file.
+	 * @param random, the random source.
+	 * @param taken, the tiles that are solid or already have a Sprite.
+	 * @param type, the type of Sprite.
+	 * @param count, the number to place.
+	 */
+	private void place(PrintWriter writer, Random random, BitSet taken,
+			String type, int count) {
+		for (int i = 0; i < count; i++) {
+			writer.println(line(type, freeTile(random, taken)));
+		}
+	}
+
+	/** Picks a random tile that is not taken, and takes it. Tries random
+	 * tiles first, then the next free tile after one, so a crowded map
+	 * still finishes.
+	 * @param random, the random source.
+	 * @param taken, the tiles that are solid or already have a Sprite.
+	 * @return int index of the tile, x + y * width.
+	 */
+	private int freeTile(Random random, BitSet taken) {
+		int tile = random.nextInt(width * height);
+		for (int tries = 0; tries < 32 && taken.get(tile); tries++) {
+			tile = random.nextInt(width * height);
+		}
+		if (taken.get(tile)) {
+			tile = taken.nextClearBit(tile);
+			if (tile >= width * height) {
+				tile = taken.nextClearBit(0);
+			}
+		}
+		taken.set(tile);
+		return tile;
+	}
+
+	/** Formats a line of the objects file, placing the Sprite at the centre
+	 * of a tile.
+	 * @param type, the type of Sprite.
+	 * @param tile, index of the tile, x + y * width.
+	 * @return String line, "type,x,y".
+	 */
+	private String line(String type, int tile) {
+		return type + "," + (tile % width * World.TILE_SIZE + World.TILE_SIZE / 2)
+				+ "," + (tile / width * World.TILE_SIZE + World.TILE_SIZE / 2);
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
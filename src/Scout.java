@@ -19,20 +19,30 @@ public class Scout extends Unit {
      * @param x, the initial x coordinate of the Scout.
      * @param y, the initial y coordinate of the Scout.
      * @param camera, the camera which will handle it's rendered location.
+     * @param store, the store to create the Scout's entity in.
      */
-   public Scout(float x, float y, Camera camera) throws SlickException {
-	   super(x,y,camera);
+   public Scout(float x, float y, Camera camera, EntityStore store) throws SlickException {
+	   super(x,y,camera,store,EntityStore.SCOUT,SPEED);
+	   reset();
+   }
+   
+   /** Reset hook, sets the Scout's image.
+    */
+   @Override
+   protected void reset() throws SlickException {
+	   super.reset();
 	   this.setImage(SCOUT_IMG);
    }
 	/*---------------------- Inherited Sprite Methods ------------------------*/
-   /**	Update method handles movement.
-    * @param world, the world object passing through delta and input.
+   /**	Update method handles movement commands. The movement itself is done
+    * by the movement system.
+    * @param world, the world object passing through input.
     */
    @Override
    public void update(World world) {
 	   //If selected, get input and move
 	   if (selected) { 
-		   Input input = world.getInput();
+		   GameInput input = world.getInput();
 		   if (input.isMousePressed(Input.MOUSE_RIGHT_BUTTON)) {
 			   setMoveUnit(true);
 			   camera.centerOn(this);
@@ -41,12 +51,8 @@ public class Scout extends Unit {
 
 		   }
 	   }
-	    
-	   if(isMoveUnit() == true) {
-		   this.move(world,SPEED);
-	   }
 	             
 	}
    
    /*------------------------------------------------------------------------*/
-}
\ No newline at end of file
+}
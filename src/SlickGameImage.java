@@ -0,0 +1,41 @@
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+/**
+ * SlickGameImage class, a GameImage backed by a Slick Image.
+ */
+public class SlickGameImage implements GameImage {
+	
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The Slick image being wrapped */
+	private final Image image;
+	
+	/*----------------------- SlickGameImage Methods -------------------------*/
+	/** SlickGameImage Constructor.
+	 * @param image, the loaded Slick image.
+	 */
+	public SlickGameImage(Image image) {
+		this.image = image;
+	}
+	
+	/*-------------------- Implemented GameImage Methods ---------------------*/
+	@Override
+	public void drawCentered(float x, float y) {
+		image.drawCentered(x, y);
+	}
+	
+	@Override
+	public long getTextureBytes() {
+		//textures are padded to powers of two, at 4 bytes per pixel
+		return (long) image.getTexture().getTextureWidth()
+				* image.getTexture().getTextureHeight() * 4;
+	}
+	
+	@Override
+	public void destroy() throws SlickException {
+		image.destroy();
+	}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
@@ -0,0 +1,48 @@
+import org.newdawn.slick.Input;
+
+/**
+ * SlickGameInput class, a GameInput that reads from Slick's Input.
+ */
+public class SlickGameInput implements GameInput {
+	
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The Slick input being wrapped */
+	private final Input input;
+	
+	/*----------------------- SlickGameInput Methods -------------------------*/
+	/** SlickGameInput Constructor.
+	 * @param input, the input of the game container.
+	 */
+	public SlickGameInput(Input input) {
+		this.input = input;
+	}
+	
+	/*-------------------- Implemented GameInput Methods ---------------------*/
+	@Override
+	public boolean isKeyDown(int key) {
+		return input.isKeyDown(key);
+	}
+	
+	@Override
+	public boolean isKeyPressed(int key) {
+		return input.isKeyPressed(key);
+	}
+	
+	@Override
+	public boolean isMousePressed(int button) {
+		return input.isMousePressed(button);
+	}
+	
+	@Override
+	public int getMouseX() {
+		return input.getMouseX();
+	}
+	
+	@Override
+	public int getMouseY() {
+		return input.getMouseY();
+	}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
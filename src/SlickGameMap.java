@@ -0,0 +1,58 @@
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.tiled.TiledMap;
+
+/**
+ * SlickGameMap class, a GameMap backed by a Slick TiledMap. Requires an
+ * OpenGL context, as the TiledMap loads its tileset images.
+ */
+public class SlickGameMap implements GameMap {
+	
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The Slick map being wrapped */
+	private final TiledMap map;
+	
+	/*------------------------ SlickGameMap Methods --------------------------*/
+	/** SlickGameMap Constructor, loads the map and its tilesets.
+	 * @param ref, the path to the TMX file.
+	 */
+	public SlickGameMap(String ref) throws SlickException {
+		this.map = new TiledMap(ref);
+	}
+	
+	/*--------------------- Implemented GameMap Methods ----------------------*/
+	@Override
+	public int getWidth() {
+		return map.getWidth();
+	}
+	
+	@Override
+	public int getHeight() {
+		return map.getHeight();
+	}
+	
+	@Override
+	public int getTileId(int x, int y, int layer) {
+		return map.getTileId(x, y, layer);
+	}
+	
+	@Override
+	public String getTileProperty(int tileId, String name, String def) {
+		return map.getTileProperty(tileId, name, def);
+	}
+	
+	@Override
+	public void prefetch(int tileX, int tileY, int width, int height) {}
+	
+	@Override
+	public void render(int x, int y) {
+		map.render(x, y);
+	}
+	
+	@Override
+	public void render(int x, int y, int tileX, int tileY, int width, int height) {
+		map.render(x, y, tileX, tileY, width, height);
+	}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
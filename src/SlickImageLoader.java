@@ -0,0 +1,20 @@
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+/**
+ * SlickImageLoader class, loads images as Slick textures.
+ */
+public class SlickImageLoader implements ImageLoader {
+	
+	/*------------------- Implemented ImageLoader Methods --------------------*/
+	@Override
+	public GameImage load(String path) throws SlickException {
+		return new SlickGameImage(new Image(path));
+	}
+	
+	@Override
+	public void flush() {}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
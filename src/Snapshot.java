@@ -0,0 +1,386 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * Snapshot class, a copy of every entity in the World and of the economy,
+ * taken in one pass of array copies so that it can be encoded and written
+ * on another thread while the game carries on. Snapshots are written as
+ * records of a save file: a full record of every entity, followed by delta
+ * records of only the entities changed since the record before.
+ *
+ * A save file is the MAGIC int and the VERSION int, followed by records.
+ * Each record is its length in bytes, the record kind, its sequence number,
+ * metal, unobtainium, the Engineer allowance, the number of slots and the
+ * number of entities in it, then the entities, all big-endian. An entity
+ * is its slot, type code, flags, position and timer, followed by the
+ * fields its type uses. A type of NONE marks a slot destroyed since the
+ * record before, and has no fields.
+ */
+public class Snapshot {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** First four bytes of a save file, "SBSV" */
+	public static final int MAGIC = 0x53425356;
+	/** Version of the save format written */
+	public static final int VERSION = 1;
+	/** Record kind holding every entity */
+	public static final byte FULL = 0;
+	/** Record kind holding the entities changed since the record before */
+	public static final byte DELTA = 1;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Position of the snapshot in its save file, counting from 1 */
+	private int sequence;
+	/** Economy at the time of the snapshot */
+	private int metal, unobtainium, allowance;
+	/** Number of entity slots copied */
+	private int slots;
+	/** Copies of the entity store's components, see EntityStore */
+	private int[] type, flags, timer, duration, product, cargo, goal, amount;
+	private float[] x, y, destX, destY, mineX, mineY;
+
+	/*-------------------------- Snapshot Methods ----------------------------*/
+	/** Snapshot Constructor, allocates empty components.
+	 * @param slots, the number of entity slots.
+	 */
+	private Snapshot(int slots) {
+		resize(slots);
+	}
+
+	/** Copies the state of a World. Called between updates, on the game
+	 * thread, and costs one array copy per component.
+	 * @param world, the World to copy.
+	 * @param sequence, the position of the snapshot in its save file.
+	 * @return Snapshot owned by the caller, unaffected by later updates.
+	 */
+	public static Snapshot capture(World world, int sequence) {
+		EntityStore store = world.getStore();
+		int size = store.size();
+		Snapshot s = new Snapshot(0);
+		s.sequence = sequence;
+		s.metal = world.getMetal();
+		s.unobtainium = world.getUnobtainium();
+		s.allowance = world.getAllowance();
+		s.slots = size;
+		s.type = Arrays.copyOf(store.type, size);
+		s.flags = Arrays.copyOf(store.flags, size);
+		s.timer = Arrays.copyOf(store.timer, size);
+		s.duration = Arrays.copyOf(store.duration, size);
+		s.product = Arrays.copyOf(store.product, size);
+		s.cargo = Arrays.copyOf(store.cargo, size);
+		s.goal = Arrays.copyOf(store.goal, size);
+		//goals are saved as ids, -1 once their centre is gone
+		for (int id = 0; id < size; id++) {
+			s.goal[id] = store.resolve(s.goal[id]);
+		}
+		s.amount = Arrays.copyOf(store.amount, size);
+		s.x = Arrays.copyOf(store.x, size);
+		s.y = Arrays.copyOf(store.y, size);
+		s.destX = Arrays.copyOf(store.destX, size);
+		s.destY = Arrays.copyOf(store.destY, size);
+		s.mineX = Arrays.copyOf(store.mineX, size);
+		s.mineY = Arrays.copyOf(store.mineY, size);
+		return s;
+	}
+
+	/** Sequence getter.
+	 * @return int position of the snapshot in its save file.
+	 */
+	public int getSequence() {
+		return sequence;
+	}
+
+	/** Encodes the snapshot as a record, with its length in front.
+	 * @param base, the snapshot of the record before, whose unchanged
+	 * entities are left out, or null for a full record.
+	 * @return byte array of the record.
+	 */
+	public byte[] encode(Snapshot base) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(bytes);
+		int count = 0;
+		for (int slot = 0; slot < slots; slot++) {
+			if (base == null ? type[slot] != EntityStore.NONE : changed(base, slot)) {
+				count++;
+			}
+		}
+		data.writeInt(0);
+		data.writeByte(base == null ? FULL : DELTA);
+		data.writeInt(sequence);
+		data.writeInt(metal);
+		data.writeInt(unobtainium);
+		data.writeInt(allowance);
+		data.writeInt(slots);
+		data.writeInt(count);
+		for (int slot = 0; slot < slots; slot++) {
+			if (base == null ? type[slot] != EntityStore.NONE : changed(base, slot)) {
+				writeEntity(data, slot);
+			}
+		}
+		data.flush();
+
+		byte[] record = bytes.toByteArray();
+		ByteBuffer.wrap(record).putInt(0, record.length - 4);
+		return record;
+	}
+
+	/** Restores a World from a save file: the full record, then every
+	 * delta after it. A record cut short, as by a crash part way through an
+	 * autosave, ends the file. Entities are created in slot order, so their
+	 * ids are compacted. Entities queued for removal are left out.
+	 * @param path, the path of the save file.
+	 * @param map, the tile map of the world.
+	 * @param images, the loader Sprites will load their images with.
+	 * @return World as it was at the last complete record.
+	 */
+	public static World restore(String path, GameMap map, ImageLoader images)
+			throws SlickException {
+		Snapshot s = read(path);
+		World world = new World(map, images, null);
+		EntityStore store = world.getStore();
+
+		int[] ids = new int[s.slots];
+		Arrays.fill(ids, -1);
+		for (int slot = 0; slot < s.slots; slot++) {
+			if (s.type[slot] == EntityStore.NONE
+					|| (s.flags[slot] & EntityStore.REMOVING) != 0) {
+				continue;
+			}
+			Sprite created = world.createSprite(EntityStore.NAMES[s.type[slot]],
+					s.x[slot], s.y[slot]);
+			if (created == null) {
+				continue;
+			}
+			int id = created.getId();
+			ids[slot] = id;
+			if (created instanceof Pylon
+					&& (s.flags[slot] & EntityStore.ACTIVE) != 0) {
+				((Pylon) created).activate(world);
+			}
+			store.setFlags(id, s.flags[slot]);
+			store.destX[id] = s.destX[slot];
+			store.destY[id] = s.destY[slot];
+			store.timer[id] = s.timer[slot];
+			store.duration[id] = s.duration[slot];
+			store.product[id] = s.product[slot];
+			store.cargo[id] = s.cargo[slot];
+			store.mineX[id] = s.mineX[slot];
+			store.mineY[id] = s.mineY[slot];
+			store.amount[id] = s.amount[slot];
+		}
+		//goals are ids, which have been compacted
+		for (int slot = 0; slot < s.slots; slot++) {
+			int goal = s.goal[slot];
+			if (ids[slot] >= 0 && goal >= 0 && goal < s.slots && ids[goal] >= 0) {
+				store.goal[ids[slot]] = store.handle(ids[goal]);
+			}
+		}
+
+		world.setAllowance(s.allowance);
+		world.addResources(s.metal, s.unobtainium);
+		world.selectFirstUnit();
+		return world;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Reads a save file into a snapshot of its last complete record.
+	 * @param path, the path of the save file.
+	 * @return Snapshot read.
+	 */
+	private static Snapshot read(String path) throws SlickException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(Paths.get(path),
+				StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			throw new SlickException("Failed to read save file " + path, e);
+		}
+		if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new SlickException(path + " is not a save file");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new SlickException(path + " has unsupported version " + version);
+		}
+
+		Snapshot s = null;
+		while (buffer.remaining() >= 4) {
+			int length = buffer.getInt();
+			if (length < 0 || length > buffer.remaining()) {
+				break;
+			}
+			ByteBuffer record = buffer.slice();
+			record.limit(length);
+			buffer.position(buffer.position() + length);
+			byte kind = record.get();
+			int sequence = record.getInt();
+			if (kind == FULL) {
+				s = new Snapshot(0);
+			} else if (s == null || kind != DELTA || sequence != s.sequence + 1) {
+				break;
+			}
+			s.sequence = sequence;
+			s.metal = record.getInt();
+			s.unobtainium = record.getInt();
+			s.allowance = record.getInt();
+			s.resize(record.getInt());
+			for (int count = record.getInt(); count > 0; count--) {
+				s.readEntity(record);
+			}
+		}
+		if (s == null) {
+			throw new SlickException(path + " holds no complete snapshot");
+		}
+		return s;
+	}
+
+	/** Whether an entity differs from the snapshot before.
+	 * @param base, the snapshot before.
+	 * @param slot, the slot of the entity.
+	 * @return boolean, true if it needs writing to a delta.
+	 */
+	private boolean changed(Snapshot base, int slot) {
+		if (slot >= base.slots) {
+			return type[slot] != EntityStore.NONE;
+		}
+		return type[slot] != base.type[slot] || flags[slot] != base.flags[slot]
+				|| x[slot] != base.x[slot] || y[slot] != base.y[slot]
+				|| timer[slot] != base.timer[slot]
+				|| destX[slot] != base.destX[slot] || destY[slot] != base.destY[slot]
+				|| cargo[slot] != base.cargo[slot] || goal[slot] != base.goal[slot]
+				|| mineX[slot] != base.mineX[slot] || mineY[slot] != base.mineY[slot]
+				|| duration[slot] != base.duration[slot]
+				|| product[slot] != base.product[slot]
+				|| amount[slot] != base.amount[slot];
+	}
+
+	/** Writes an entity, with only the fields its type uses.
+	 * @param data, the stream to write to.
+	 * @param slot, the slot of the entity.
+	 */
+	private void writeEntity(DataOutputStream data, int slot) throws IOException {
+		int t = type[slot];
+		data.writeInt(slot);
+		data.writeByte(t);
+		if (t == EntityStore.NONE) {
+			return;
+		}
+		data.writeByte(flags[slot]);
+		data.writeFloat(x[slot]);
+		data.writeFloat(y[slot]);
+		data.writeInt(timer[slot]);
+		if (EntityStore.isUnit(t)) {
+			data.writeFloat(destX[slot]);
+			data.writeFloat(destY[slot]);
+			data.writeByte(cargo[slot]);
+			data.writeFloat(mineX[slot]);
+			data.writeFloat(mineY[slot]);
+			data.writeInt(goal[slot]);
+		}
+		if (t == EntityStore.METAL || t == EntityStore.UNOBTAINIUM) {
+			data.writeInt(amount[slot]);
+		}
+		if (trains(t)) {
+			data.writeInt(duration[slot]);
+			data.writeByte(product[slot]);
+		}
+	}
+
+	/** Reads an entity written by writeEntity into its slot.
+	 * @param record, the record being read.
+	 */
+	private void readEntity(ByteBuffer record) {
+		int slot = record.getInt();
+		int t = record.get();
+		type[slot] = t;
+		flags[slot] = 0;
+		goal[slot] = -1;
+		if (t == EntityStore.NONE) {
+			return;
+		}
+		flags[slot] = record.get();
+		x[slot] = record.getFloat();
+		y[slot] = record.getFloat();
+		timer[slot] = record.getInt();
+		if (EntityStore.isUnit(t)) {
+			destX[slot] = record.getFloat();
+			destY[slot] = record.getFloat();
+			cargo[slot] = record.get();
+			mineX[slot] = record.getFloat();
+			mineY[slot] = record.getFloat();
+			goal[slot] = record.getInt();
+		} else {
+			destX[slot] = x[slot];
+			destY[slot] = y[slot];
+		}
+		if (t == EntityStore.METAL || t == EntityStore.UNOBTAINIUM) {
+			amount[slot] = record.getInt();
+		}
+		if (trains(t)) {
+			duration[slot] = record.getInt();
+			product[slot] = record.get();
+		}
+	}
+
+	/** Whether a type can train, and so has a duration and a product.
+	 * @param t, the type code.
+	 * @return boolean, true for Command Centres, Factories, Builders and
+	 * Trucks.
+	 */
+	private static boolean trains(int t) {
+		return t == EntityStore.COMMAND_CNTR || t == EntityStore.FACTORY
+				|| t == EntityStore.BUILDER || t == EntityStore.TRUCK;
+	}
+
+	/** Grows the components to hold a number of slots. Components are never
+	 * shrunk, as the store never frees its highest slots.
+	 * @param size, the number of slots.
+	 */
+	private void resize(int size) {
+		int capacity = Math.max(size, slots);
+		type = copyOf(type, capacity);
+		flags = copyOf(flags, capacity);
+		timer = copyOf(timer, capacity);
+		duration = copyOf(duration, capacity);
+		product = copyOf(product, capacity);
+		cargo = copyOf(cargo, capacity);
+		goal = copyOf(goal, capacity);
+		amount = copyOf(amount, capacity);
+		x = copyOf(x, capacity);
+		y = copyOf(y, capacity);
+		destX = copyOf(destX, capacity);
+		destY = copyOf(destY, capacity);
+		mineX = copyOf(mineX, capacity);
+		mineY = copyOf(mineY, capacity);
+		slots = capacity;
+	}
+
+	/** Copies an int array into a new one of a given length.
+	 * @param from, the array to copy, or null.
+	 * @param length, the length of the new array.
+	 * @return int array copied.
+	 */
+	private static int[] copyOf(int[] from, int length) {
+		return from == null ? new int[length] : Arrays.copyOf(from, length);
+	}
+
+	/** Copies a float array into a new one of a given length.
+	 * @param from, the array to copy, or null.
+	 * @param length, the length of the new array.
+	 * @return float array copied.
+	 */
+	private static float[] copyOf(float[] from, int length) {
+		return from == null ? new float[length] : Arrays.copyOf(from, length);
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
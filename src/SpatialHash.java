@@ -0,0 +1,236 @@
+import java.util.ArrayList;
+
+/**
+ * SpatialHash class, a uniform grid of tile sized buckets that every Sprite
+ * in the World is filed into by position. All proximity queries go through
+ * here, so that only the Sprites in nearby buckets are ever checked rather
+ * than every Sprite in the World. The buckets are kept in square pages of
+ * ChunkedGameMap.CHUNK_TILES buckets, and a page, and a bucket's list, are
+ * only created when a Sprite is first filed into them, so empty stretches
+ * of a large map cost nothing.
+ */
+public class SpatialHash {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Shared list of every bucket nothing has been filed into, never added to */
+	private static final ArrayList<Sprite> EMPTY = new ArrayList<>(0);
+	/** Width and height of a page of buckets as a power of two */
+	private static final int SHIFT = ChunkedGameMap.CHUNK_SHIFT;
+	/** Width and height of a page of buckets */
+	private static final int PAGE = 1 << SHIFT;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Width and height of a single bucket, in pixels */
+	private final int cellSize;
+	/** Number of bucket columns and rows covering the map */
+	private final int columns, rows;
+	/** Number of page columns */
+	private final int pageColumns;
+	/** Pages of buckets, indexed by page column + page row * pageColumns,
+	 * each indexed by column + row * PAGE within the page, null until a
+	 * Sprite is filed into one */
+	private final ArrayList<Sprite>[][] pages;
+	/** Reused result list, so that queries do not allocate */
+	private final ArrayList<Sprite> results = new ArrayList<>();
+
+	/*-------------------------- SpatialHash Methods -------------------------*/
+	/** SpatialHash Constructor. Covers the map with buckets, none created.
+	 * @param width, the width of the map in pixels.
+	 * @param height, the height of the map in pixels.
+	 * @param cellSize, the width and height of a bucket in pixels.
+	 */
+	public SpatialHash(int width, int height, int cellSize) {
+		this.cellSize = cellSize;
+		this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+		this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+		this.pageColumns = (columns + PAGE - 1) >> SHIFT;
+		this.pages = newPages(pageColumns * ((rows + PAGE - 1) >> SHIFT));
+	}
+
+	/** Files a Sprite into the bucket under its current position.
+	 * @param s, the Sprite to be added.
+	 */
+	public void insert(Sprite s) {
+		bucket(cellOf(s.getX(), s.getY())).add(s);
+	}
+
+	/** Removes a Sprite from the bucket under its current position.
+	 * @param s, the Sprite to be removed.
+	 */
+	public void remove(Sprite s) {
+		cell(cellOf(s.getX(), s.getY())).remove(s);
+	}
+
+	/** Moves a Sprite between buckets after its position has changed. Does
+	 * nothing if it is still within the same bucket.
+	 * @param s, the Sprite that has moved.
+	 * @param oldX, the x coordinate the Sprite was filed under.
+	 * @param oldY, the y coordinate the Sprite was filed under.
+	 */
+	public void move(Sprite s, float oldX, float oldY) {
+		int from = cellOf(oldX, oldY);
+		int to = cellOf(s.getX(), s.getY());
+		if (from != to) {
+			cell(from).remove(s);
+			bucket(to).add(s);
+		}
+	}
+
+	/** Radius query, finds every Sprite within radius of a point. The list
+	 * returned is reused by the next query, so it must not be held onto.
+	 * @param x, x coordinate of the centre of the query.
+	 * @param y, y coordinate of the centre of the query.
+	 * @param radius, the distance from the centre to search.
+	 * @return ArrayList of all Sprites within radius.
+	 */
+	public ArrayList<Sprite> queryRadius(double x, double y, double radius) {
+		return queryRadius(x, y, radius, results);
+	}
+
+	/** Radius query into a caller's list, so that queries can be made from
+	 * several threads at once while the grid is not being changed.
+	 * @param x, x coordinate of the centre of the query.
+	 * @param y, y coordinate of the centre of the query.
+	 * @param radius, the distance from the centre to search.
+	 * @param results, the list to clear and fill.
+	 * @return ArrayList results, holding all Sprites within radius.
+	 */
+	public ArrayList<Sprite> queryRadius(double x, double y, double radius,
+			ArrayList<Sprite> results) {
+		results.clear();
+		int minCol = clampColumn((int)Math.floor((x - radius) / cellSize));
+		int maxCol = clampColumn((int)Math.floor((x + radius) / cellSize));
+		int minRow = clampRow((int)Math.floor((y - radius) / cellSize));
+		int maxRow = clampRow((int)Math.floor((y + radius) / cellSize));
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int col = minCol; col <= maxCol; col++) {
+				ArrayList<Sprite> cell = cell(col + row * columns);
+				for (int i = 0; i < cell.size(); i++) {
+					Sprite s = cell.get(i);
+					if (Position.distance(s.getX(), s.getY(), (float)x, (float)y)
+							<= radius) {
+						results.add(s);
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	/** Rectangle query, finds every Sprite positioned within a rectangle.
+	 * Only the buckets overlapping the rectangle are checked.
+	 * @param minX, left edge of the rectangle.
+	 * @param minY, top edge of the rectangle.
+	 * @param maxX, right edge of the rectangle.
+	 * @param maxY, bottom edge of the rectangle.
+	 * @param results, the list to clear and fill.
+	 * @return ArrayList results, holding all Sprites within the rectangle.
+	 */
+	public ArrayList<Sprite> queryRect(double minX, double minY, double maxX,
+			double maxY, ArrayList<Sprite> results) {
+		results.clear();
+		int minCol = clampColumn((int)Math.floor(minX / cellSize));
+		int maxCol = clampColumn((int)Math.floor(maxX / cellSize));
+		int minRow = clampRow((int)Math.floor(minY / cellSize));
+		int maxRow = clampRow((int)Math.floor(maxY / cellSize));
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int col = minCol; col <= maxCol; col++) {
+				ArrayList<Sprite> cell = cell(col + row * columns);
+				for (int i = 0; i < cell.size(); i++) {
+					Sprite s = cell.get(i);
+					float x = s.getX();
+					float y = s.getY();
+					if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+						results.add(s);
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Gets a bucket to read.
+	 * @param cell, the index of the bucket, column + row * columns.
+	 * @return ArrayList of the Sprites in the bucket, EMPTY if none were
+	 * ever filed into it.
+	 */
+	private ArrayList<Sprite> cell(int cell) {
+		int col = cell % columns;
+		int row = cell / columns;
+		ArrayList<Sprite>[] page = pages[(col >> SHIFT) + (row >> SHIFT) * pageColumns];
+		if (page == null) {
+			return EMPTY;
+		}
+		ArrayList<Sprite> bucket = page[(col & PAGE - 1) + ((row & PAGE - 1) << SHIFT)];
+		return bucket == null ? EMPTY : bucket;
+	}
+
+	/** Gets a bucket to file a Sprite into, creating its page and list the
+	 * first time.
+	 * @param cell, the index of the bucket, column + row * columns.
+	 * @return ArrayList of the Sprites in the bucket, never EMPTY.
+	 */
+	private ArrayList<Sprite> bucket(int cell) {
+		int col = cell % columns;
+		int row = cell / columns;
+		int p = (col >> SHIFT) + (row >> SHIFT) * pageColumns;
+		if (pages[p] == null) {
+			pages[p] = newPage();
+		}
+		int i = (col & PAGE - 1) + ((row & PAGE - 1) << SHIFT);
+		if (pages[p][i] == null) {
+			pages[p][i] = new ArrayList<>();
+		}
+		return pages[p][i];
+	}
+
+	/** Makes an empty table of pages.
+	 * @param count, the number of pages.
+	 * @return ArrayList[][] with every page null.
+	 */
+	@SuppressWarnings("unchecked")
+	private static ArrayList<Sprite>[][] newPages(int count) {
+		return (ArrayList<Sprite>[][]) new ArrayList<?>[count][];
+	}
+
+	/** Makes a page with every bucket null.
+	 * @return ArrayList[] of PAGE * PAGE buckets.
+	 */
+	@SuppressWarnings("unchecked")
+	private static ArrayList<Sprite>[] newPage() {
+		return (ArrayList<Sprite>[]) new ArrayList<?>[PAGE * PAGE];
+	}
+
+	/** Finds the index of the bucket containing a point. Points off the map
+	 * are filed into the nearest edge bucket.
+	 * @param x, the x coordinate in pixels.
+	 * @param y, the y coordinate in pixels.
+	 * @return int index of the bucket.
+	 */
+	private int cellOf(double x, double y) {
+		return clampColumn((int)Math.floor(x / cellSize))
+				+ clampRow((int)Math.floor(y / cellSize)) * columns;
+	}
+
+	/** Clamps a column index to the grid.
+	 * @param col, the unclamped column.
+	 * @return int column within the grid.
+	 */
+	private int clampColumn(int col) {
+		return Math.max(0, Math.min(columns - 1, col));
+	}
+
+	/** Clamps a row index to the grid.
+	 * @param row, the unclamped row.
+	 * @return int row within the grid.
+	 */
+	private int clampRow(int row) {
+		return Math.max(0, Math.min(rows - 1, row));
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -1,73 +1,248 @@
-import org.newdawn.slick.*;
+import org.newdawn.slick.SlickException;
 
 /** Abstract Sprite super class. This class is the parent class of all render-able game
- * objects. All sprites have a position, image, and camera to translate positions
+ * objects. All sprites are a view over one entity in the World's EntityStore, which
+ * holds their position and state, and have an image and camera to translate positions
  * to rendered locations on the screen.
  */
 public abstract class Sprite {
-	
+
+	/* ------------------------- Static Variables ----------------------------*/
+	/** Cache every sprite loads its images through */
+	private static AssetCache assets = new AssetCache(new SlickImageLoader());
+
 	/* ------------------------- Instance Variables --------------------------*/
-	/** Position variable belonging to all sprites, may be permanent or not */
-	private Position position;
+	/** The store holding this sprite's entity */
+	protected final EntityStore store;
+	/** Id of this sprite's entity in the store, -1 once destroyed */
+	protected int id;
+	/** EntityStore type code of this sprite's entity */
+	private final int entityType;
 	/** Image variable to be set in the constructor of all child classes */
-	private Image image;
+	private GameImage image;
+	/** Path of the image, to release it from the cache */
+	private String imagePath;
 	/** Camera class belonging to all sprites used for coordinate translation */
 	public Camera camera;
-   
+	/** Spatial hash this sprite is filed in, kept up to date as it moves */
+	private SpatialHash grid;
+
 	/*--------------------- Inheritable Sprite Methods -----------------------*/
     /** Abstract Render method. All Buildings and Units inherit this method
      */
     public abstract void render();
-   
-    /** Abstract Update method. All Buildings and Units inherit this method, and this
-     * method commands the way in which any Sprite functions.
+
+    /** Abstract Update method. Called by the World for the selected Sprite, and
+     * handles the commands the player can give it. The simulation itself is
+     * carried out over the EntityStore by the World's systems.
      * @param world, used to pass whatever is needed for the class to function.
      */
     public abstract void update(World world);
-    
+
     /** Sprite Constructor. Every inheriting class follows this template,
-     * with or without the addition of extra functionality.
+     * with or without the addition of extra functionality. Creates the entity
+     * this sprite views.
      * @param x, the x coordinate upon creation
      * @param y, the y coordinate upon creation
      * @param camera, the camera used to translate coordinates.
+     * @param store, the store to create the entity in.
+     * @param type, the EntityStore type code of the entity.
      */
-    public Sprite(float x, float y, Camera camera) {
-       this.position = new Position(x,y);
+    public Sprite(float x, float y, Camera camera, EntityStore store, int type) {
+       this.store=store;
        this.camera=camera;
+       this.entityType=type;
+       this.id=store.create(type, this, x, y);
+    }
+
+    /** Reset hook, run by the constructor of each concrete sprite and again
+     * each time the sprite is respawned from a pool, once its entity has been
+     * created. Sets the image, and anything else the sprite does not start
+     * with. Overriding methods call this first.
+     */
+    protected void reset() throws SlickException {}
+
+    /** Brings a destroyed sprite back as a new entity, as the World's sprite
+     * pool does instead of constructing another.
+     * @param x, the x coordinate upon creation
+     * @param y, the y coordinate upon creation
+     */
+    public void respawn(float x, float y) throws SlickException {
+    	this.id=store.create(entityType, this, x, y);
+    	reset();
     }
-    
+
 	/*-------------------------- Getters & Setters ---------------------------*/
     /** Position getter.
      * @return Position copy
      */
     public Position getPosition() {
-    	Position dummy = new Position(this.position.getX(),this.position.getY());
-    	return dummy;
+    	return new Position(getX(),getY());
+    }
+
+    /** x coordinate getter, reads the store without copying a position. Used
+     * on every hot path in place of getPosition.
+     * @return float x coordinate
+     */
+    public float getX() {
+    	return store.x[id];
     }
-    
-    /** Position setter
+
+    /** y coordinate getter, reads the store without copying a position. Used
+     * on every hot path in place of getPosition.
+     * @return float y coordinate
+     */
+    public float getY() {
+    	return store.y[id];
+    }
+
+    /** Position setter. Negative coordinates are ignored, as they are off
+     * the map.
      * @param x, x coordinate to be set
      * @param y, y coordinate to be set
      */
     public void setPosition(float x,float y) {
-    	this.position.setX(x);
-    	this.position.setY(y);
+    	float oldX=getX();
+    	float oldY=getY();
+    	if (x >= 0) {
+    		store.x[id]=x;
+    	}
+    	if (y >= 0) {
+    		store.y[id]=y;
+    	}
+    	refile(oldX, oldY);
+    }
+
+    /** Moves the sprite between buckets of its spatial hash, after its
+     * position has been changed in the store directly.
+     * @param oldX, the x coordinate it was filed under.
+     * @param oldY, the y coordinate it was filed under.
+     */
+    public void refile(float oldX, float oldY) {
+    	if (grid != null) {
+    		grid.move(this, oldX, oldY);
+    	}
+    }
+
+    /** Render x coordinate getter. Interpolates between the position before
+     * and after the last update, by the camera's interpolation factor.
+     * @return float x coordinate to render at.
+     */
+    public float getRenderX() {
+    	float lastX=store.lastX[id];
+    	return lastX + (store.x[id] - lastX) * camera.getAlpha();
+    }
+
+    /** Render y coordinate getter. Interpolates between the position before
+     * and after the last update, by the camera's interpolation factor.
+     * @return float y coordinate to render at.
+     */
+    public float getRenderY() {
+    	float lastY=store.lastY[id];
+    	return lastY + (store.y[id] - lastY) * camera.getAlpha();
+    }
+
+    /** Id getter.
+     * @return int id of the entity in the store, -1 once destroyed.
+     */
+    public int getId() {
+    	return id;
     }
-    
-    /** Image setter, called generally in the constructor of a Sprite
+
+    /** Entity type getter, readable once destroyed.
+     * @return int EntityStore type code of the sprite.
+     */
+    public int getEntityType() {
+    	return entityType;
+    }
+
+    /** Handle getter, for keeping a reference to the entity that can be
+     * checked later.
+     * @return int handle of the entity in the store, EntityStore.NO_HANDLE
+     * once destroyed.
+     */
+    public int getHandle() {
+    	return id<0 ? EntityStore.NO_HANDLE : store.handle(id);
+    }
+
+    /** Whether the sprite's entity still exists. A sprite kept after it has
+     * been destroyed reads no state, so holders of one should check. As a
+     * destroyed sprite may be respawned from a pool as a new entity, a
+     * reference kept across updates is best kept as a handle.
+     * @return boolean, false once destroyed.
+     */
+    public boolean isAlive() {
+    	return id>=0;
+    }
+
+    /** Marks the sprite as destroyed, once its entity has been removed
+     * from the store.
+     */
+    public void detach() {
+    	this.id=-1;
+    }
+
+    /** Grid setter, called by the World when the sprite is created or
+     * destroyed so that its movements are tracked.
+     * @param grid, the spatial hash the sprite is filed in, or null.
+     */
+    public void setGrid(SpatialHash grid) {
+    	this.grid=grid;
+    }
+
+    /** Image setter, called generally in the constructor of a Sprite. The
+     * image is shared through the asset cache, and the previous one released.
      * @param imageLoc, the location of the path of the image.
      */
     public void setImage(String imageLoc) throws SlickException {
-    	this.image= new Image(imageLoc);
+    	GameImage next=assets.acquire(imageLoc);
+    	releaseImage();
+    	this.image=next;
+    	this.imagePath=imageLoc;
     }
-    
+
+    /** Releases the sprite's image back to the asset cache, called by the
+     * World when the sprite is destroyed.
+     */
+    public void releaseImage() {
+    	if (imagePath != null) {
+    		assets.release(imagePath);
+    		imagePath=null;
+    	}
+    }
+
     /** Image getter, called in the render method of a Sprite.
      * @return Image, the image to be rendered.
      */
-    public Image getImage() {
+    public GameImage getImage() {
     	return this.image;
     }
-    
+
+    /*------------------------- Static Image Loading -------------------------*/
+    /** Gets an image shared by a whole class, such as the highlights, from
+     * the asset cache. It is only read from disk the first time.
+     * @param imageLoc, the location of the path of the image.
+     * @return GameImage loaded.
+     */
+    public static GameImage loadImage(String imageLoc) throws SlickException {
+    	return assets.get(imageLoc);
+    }
+
+    /** Image loader setter, called by the World before any sprite is created
+     * so that headless worlds load no textures. Starts a new asset cache.
+     * @param loader, the loader to use.
+     */
+    public static void setImageLoader(ImageLoader loader) {
+    	assets=new AssetCache(loader);
+    }
+
+    /** Asset cache getter, used to report texture memory.
+     * @return AssetCache holding every image loaded.
+     */
+    public static AssetCache getAssets() {
+    	return assets;
+    }
+
 	/*-----------------------------------------------------------------------*/
-    
-}
\ No newline at end of file
+
+}
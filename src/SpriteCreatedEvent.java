@@ -0,0 +1,51 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SpriteCreatedEvent class, a Java Flight Recorder event for a Sprite created by the
+ * World, and whether it was respawned from the pool.
+ * Only created while a recording has the event enabled, so costs nothing
+ * otherwise.
+ */
+@Name("shadowbuild.SpriteCreated")
+@Label("Sprite Created")
+@Category("Shadow Build")
+@StackTrace(false)
+public class SpriteCreatedEvent extends Event {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** The event's type, read to check whether it is enabled */
+	private static final EventType TYPE = EventType.getEventType(SpriteCreatedEvent.class);
+
+	/* ------------------------- Instance Variables --------------------------*/
+	@Label("Entity Type")
+	private String entityType;
+	@Label("Count Of Type")
+	private int count;
+	@Label("Pooled")
+	private boolean pooled;
+
+	/*---------------------- SpriteCreatedEvent Methods ----------------------*/
+	/** Commits the event, if it is enabled.
+	 * @param entityType, the EntityStore type code of the Sprite.
+	 * @param count, the number of its type after it was created.
+	 * @param pooled, whether it was respawned from the pool.
+	 */
+	public static void emit(int entityType, int count, boolean pooled) {
+		if (!TYPE.isEnabled()) {
+			return;
+		}
+		SpriteCreatedEvent event = new SpriteCreatedEvent();
+		event.entityType = EntityStore.NAMES[entityType];
+		event.count = count;
+		event.pooled = pooled;
+		event.commit();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
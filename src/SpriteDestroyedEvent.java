@@ -0,0 +1,47 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SpriteDestroyedEvent class, a Java Flight Recorder event for a Sprite destroyed by the
+ * World.
+ * Only created while a recording has the event enabled, so costs nothing
+ * otherwise.
+ */
+@Name("shadowbuild.SpriteDestroyed")
+@Label("Sprite Destroyed")
+@Category("Shadow Build")
+@StackTrace(false)
+public class SpriteDestroyedEvent extends Event {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** The event's type, read to check whether it is enabled */
+	private static final EventType TYPE = EventType.getEventType(SpriteDestroyedEvent.class);
+
+	/* ------------------------- Instance Variables --------------------------*/
+	@Label("Entity Type")
+	private String entityType;
+	@Label("Count Of Type")
+	private int count;
+
+	/*--------------------- SpriteDestroyedEvent Methods ---------------------*/
+	/** Commits the event, if it is enabled.
+	 * @param entityType, the EntityStore type code of the Sprite.
+	 * @param count, the number of its type after it was destroyed.
+	 */
+	public static void emit(int entityType, int count) {
+		if (!TYPE.isEnabled()) {
+			return;
+		}
+		SpriteDestroyedEvent event = new SpriteDestroyedEvent();
+		event.entityType = EntityStore.NAMES[entityType];
+		event.count = count;
+		event.commit();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,73 @@
+import java.util.Arrays;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * SpritePool class, keeps destroyed Sprites by entity type so the World can
+ * respawn them instead of constructing new ones. A Sprite released to the
+ * pool has had its entity destroyed and its image released; obtaining it
+ * creates a new entity for it and runs its reset hook. Once the pool holds
+ * as many Sprites of a type as are spawned at once, spawning and destroying
+ * that type allocates nothing. At most MAX_POOLED of each type are kept, and
+ * the rest left to the garbage collector.
+ */
+public class SpritePool {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Most Sprites of one type kept */
+	private static final int MAX_POOLED = 1024;
+	/** Sprites first kept of each type, grown up to MAX_POOLED */
+	private static final int INITIAL = 16;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Sprites kept, by EntityStore type code */
+	private final Sprite[][] free = new Sprite[EntityStore.NAMES.length][];
+	/** Number of Sprites kept, by EntityStore type code */
+	private final int[] counts = new int[EntityStore.NAMES.length];
+
+	/*-------------------------- SpritePool Methods --------------------------*/
+	/** Respawns a kept Sprite of a type as a new entity.
+	 * @param type, the EntityStore type code.
+	 * @param x, the x coordinate upon creation.
+	 * @param y, the y coordinate upon creation.
+	 * @return Sprite respawned, or null if none of the type is kept.
+	 */
+	public Sprite obtain(int type, float x, float y) throws SlickException {
+		if (type <= EntityStore.NONE || counts[type] == 0) {
+			return null;
+		}
+		Sprite sprite = free[type][--counts[type]];
+		free[type][counts[type]] = null;
+		sprite.respawn(x, y);
+		return sprite;
+	}
+
+	/** Keeps a Sprite whose entity has been destroyed.
+	 * @param sprite, the Sprite, already detached.
+	 */
+	public void release(Sprite sprite) {
+		int type = sprite.getEntityType();
+		int count = counts[type];
+		if (count == MAX_POOLED) {
+			return;
+		}
+		if (free[type] == null) {
+			free[type] = new Sprite[INITIAL];
+		} else if (count == free[type].length) {
+			free[type] = Arrays.copyOf(free[type],
+					Math.min(MAX_POOLED, count * 2));
+		}
+		free[type][counts[type]++] = sprite;
+	}
+
+	/** Number of Sprites of a type kept.
+	 * @param type, the EntityStore type code.
+	 * @return int kept.
+	 */
+	public int size(int type) {
+		return counts[type];
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,65 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * SpriteRegistry class, a list of the Sprites of one kind in the World,
+ * such as its Units, that can be added to and removed from in constant
+ * time. The position of every Sprite in the list is kept by its entity id,
+ * and a Sprite is removed by moving the last one into its place, so the
+ * order of the list is not kept.
+ * @param <T>, the kind of Sprite held.
+ */
+public class SpriteRegistry<T extends Sprite> {
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Every Sprite registered */
+	private final ArrayList<T> sprites = new ArrayList<>();
+	/** Position in the list of each Sprite, by entity id */
+	private int[] positions = new int[64];
+
+	/*----------------------- SpriteRegistry Methods -------------------------*/
+	/** Adds a newly created Sprite.
+	 * @param sprite, the Sprite.
+	 */
+	public void add(T sprite) {
+		int id = sprite.getId();
+		if (id >= positions.length) {
+			positions = Arrays.copyOf(positions, Math.max(id + 1, positions.length * 2));
+		}
+		positions[id] = sprites.size();
+		sprites.add(sprite);
+	}
+
+	/** Removes a Sprite about to be destroyed, moving the last Sprite into
+	 * its place.
+	 * @param sprite, the Sprite.
+	 * @return boolean, true if it was registered.
+	 */
+	public boolean remove(Sprite sprite) {
+		int id = sprite.getId();
+		if (id < 0 || id >= positions.length) {
+			return false;
+		}
+		int position = positions[id];
+		if (position >= sprites.size() || sprites.get(position) != sprite) {
+			return false;
+		}
+		T last = sprites.remove(sprites.size() - 1);
+		if (last != sprite) {
+			sprites.set(position, last);
+			positions[last.getId()] = position;
+		}
+		return true;
+	}
+
+	/** List getter. The list must not be changed except through the
+	 * registry.
+	 * @return ArrayList of every Sprite registered, in no particular order.
+	 */
+	public ArrayList<T> list() {
+		return sprites;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
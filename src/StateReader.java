@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * StateReader class, dumps a window of the state file written by the
+ * StateRecorder as CSV, one line a tick, oldest first. Only the ticks still
+ * in the ring can be dumped. The file can be read while the game is still
+ * writing it, or after it has crashed.
+ *
+ * Usage: java StateReader [file] [from] [to]
+ * where from and to are tick numbers, inclusive, and a negative from dumps
+ * that many of the last ticks. By default every tick in the ring is dumped.
+ */
+public class StateReader {
+
+	/*-------------------------- StateReader Methods -------------------------*/
+	/** Start-up method. Prints the window of the file asked for.
+	 * @param args Command-line arguments, as in the class usage.
+	 */
+	public static void main(String[] args) throws IOException {
+		String path = args.length > 0 ? args[0] : StateRecorder.FILE_NAME;
+		try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+			MappedByteBuffer buffer = file.getChannel().map(
+					FileChannel.MapMode.READ_ONLY, 0, file.length());
+			if (buffer.getInt(0) != StateRecorder.MAGIC) {
+				throw new IOException(path + " is not a state file");
+			}
+			if (buffer.getInt(4) != StateRecorder.VERSION
+					|| buffer.getInt(8) != StateRecorder.RECORD_SIZE) {
+				throw new IOException(path + " has unsupported version "
+						+ buffer.getInt(4));
+			}
+			int capacity = buffer.getInt(12);
+			long written = buffer.getLong(StateRecorder.WRITTEN);
+			long oldest = Math.max(0, written - capacity);
+
+			long from = oldest;
+			long to = written - 1;
+			if (args.length > 1) {
+				from = Long.parseLong(args[1]);
+				if (from < 0) {
+					from = written + from;
+				}
+			}
+			if (args.length > 2) {
+				to = Long.parseLong(args[2]);
+			}
+			from = Math.max(from, oldest);
+			to = Math.min(to, written - 1);
+
+			StringBuilder header = new StringBuilder(
+					"tick,time,nanos,delta,metal,unobtainium,allowance,pylons");
+			for (int type = 1; type <= StateRecorder.TYPES; type++) {
+				header.append(',').append(EntityStore.NAMES[type]);
+			}
+			System.out.println(header);
+			for (long tick = from; tick <= to; tick++) {
+				System.out.println(format(buffer, StateRecorder.HEADER_SIZE
+						+ (int) (tick % capacity) * StateRecorder.RECORD_SIZE));
+			}
+		}
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Formats a record as a line of CSV.
+	 * @param buffer, the mapped file.
+	 * @param at, the offset of the record.
+	 * @return String of the record's fields, in file order.
+	 */
+	private static String format(MappedByteBuffer buffer, int at) {
+		StringBuilder line = new StringBuilder();
+		line.append(buffer.getLong(at + StateRecorder.TICK)).append(',')
+				.append(buffer.getLong(at + StateRecorder.TIME)).append(',')
+				.append(buffer.getLong(at + StateRecorder.NANOS));
+		for (int field = StateRecorder.DELTA; field < StateRecorder.RECORD_SIZE;
+				field += 4) {
+			line.append(',').append(buffer.getInt(at + field));
+		}
+		return line.toString();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * StateRecorder class, a flight recorder of the state of the World over time.
+ * Each tick the World appends a fixed width record of its totals, the number
+ * of entities of each type, and how long the tick took, to a ring file mapped
+ * into memory. Once the ring is full the oldest records are overwritten, so
+ * the file always holds the last capacity ticks. Appending writes only to
+ * the mapped memory, so it allocates nothing and makes no system calls, and
+ * as the operating system owns the pages, the records survive the game
+ * crashing. The file is replaced when the game next starts, so it should be
+ * kept aside first. The StateReader dumps it.
+ *
+ * The file is a header of HEADER_SIZE bytes: the MAGIC int, the VERSION,
+ * RECORD_SIZE and the capacity in records as ints, then the number of
+ * records ever written as a long. Record n is at HEADER_SIZE + (n % capacity)
+ * * RECORD_SIZE, and holds as longs the tick number, the wall clock time in
+ * milliseconds and the nanoseconds the tick took, then as ints the delta,
+ * metal, unobtainium, Engineer allowance, active Pylons and the number of
+ * entities of each type, by type code from COMMAND_CNTR.
+ */
+public class StateRecorder {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** First four bytes of a state file, "SBFR" */
+	public static final int MAGIC = 0x53424652;
+	/** Version of the file format written */
+	public static final int VERSION = 1;
+	/** Default path of the state file */
+	public static final String FILE_NAME = "session.state";
+	/** Default minutes of state kept */
+	public static final int DEFAULT_MINUTES = 10;
+	/** Bytes before the first record */
+	public static final int HEADER_SIZE = 64;
+	/** Offset of the number of records written, in the header */
+	public static final int WRITTEN = 16;
+	/** Number of entity types counted, every type code but NONE */
+	public static final int TYPES = EntityStore.NAMES.length - 1;
+	/** Offsets of the fields of a record */
+	public static final int TICK = 0, TIME = 8, NANOS = 16, DELTA = 24,
+			METAL = 28, UNOBTAINIUM = 32, ALLOWANCE = 36, PYLONS = 40,
+			COUNTS = 44;
+	/** Bytes in a record */
+	public static final int RECORD_SIZE = COUNTS + 4 * TYPES;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The file, held open while recording */
+	private final RandomAccessFile file;
+	/** The mapped file */
+	private final MappedByteBuffer buffer;
+	/** Number of records the ring holds */
+	private final int capacity;
+	/** Number of records ever written */
+	private long written = 0;
+
+	/*------------------------ StateRecorder Methods -------------------------*/
+	/** StateRecorder Constructor. Replaces the file with an empty ring
+	 * holding enough ticks of FixedStepClock.STEP for some minutes of play.
+	 * @param path, the path of the state file.
+	 * @param minutes, minutes of play to keep.
+	 */
+	public StateRecorder(String path, int minutes) throws IOException {
+		this.capacity = minutes * 60000 / FixedStepClock.STEP;
+		long length = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+		this.file = new RandomAccessFile(path, "rw");
+		file.setLength(0);
+		file.setLength(length);
+		this.buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE,
+				0, length);
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(8, RECORD_SIZE);
+		buffer.putInt(12, capacity);
+		buffer.putLong(WRITTEN, 0);
+	}
+
+	/** Appends the state of the World after a tick, then counts it in the
+	 * header, so a record is only read once it is whole.
+	 * @param world, the World just updated.
+	 * @param delta, milliseconds the tick lasted.
+	 * @param nanos, nanoseconds the tick took to run.
+	 */
+	public void record(World world, int delta, long nanos) {
+		EntityStore store = world.getStore();
+		int at = HEADER_SIZE + (int) (written % capacity) * RECORD_SIZE;
+		buffer.putLong(at + TICK, written);
+		buffer.putLong(at + TIME, System.currentTimeMillis());
+		buffer.putLong(at + NANOS, nanos);
+		buffer.putInt(at + DELTA, delta);
+		buffer.putInt(at + METAL, world.getMetal());
+		buffer.putInt(at + UNOBTAINIUM, world.getUnobtainium());
+		buffer.putInt(at + ALLOWANCE, world.getAllowance());
+		buffer.putInt(at + PYLONS, store.ofType(EntityStore.PYLON)
+				.countAnd(store.withFlag(EntityStore.ACTIVE)));
+		for (int type = 0; type < TYPES; type++) {
+			buffer.putInt(at + COUNTS + 4 * type, store.count(type + 1));
+		}
+		buffer.putLong(WRITTEN, ++written);
+	}
+
+	/** Flushes the mapped file to disk and closes it, called as the game
+	 * exits.
+	 */
+	public void close() {
+		try {
+			buffer.force();
+			file.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,144 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+/**
+ * TextureAtlas class, an ImageLoader that hands out regions of a single
+ * sheet built by the AtlasBuilder. Every region is drawn with drawEmbedded
+ * inside one startUse and endUse span, so a frame of Sprites binds the
+ * texture once rather than once per Sprite. Images that are not in the
+ * atlas are loaded on their own, and end the span before they are drawn.
+ */
+public class TextureAtlas implements ImageLoader {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Default path of the atlas sheet */
+	public static final String SHEET = "assets/atlas.png";
+	/** Default path of the atlas index */
+	public static final String INDEX = "assets/atlas.csv";
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** The sheet every region is drawn from */
+	private final Image sheet;
+	/** x, y, width and height of each region, keyed by image path */
+	private final HashMap<String, int[]> regions = new HashMap<>();
+	/** Loader for images missing from the atlas */
+	private final ImageLoader fallback;
+	/** Whether the sheet is bound, between startUse and endUse */
+	private boolean batching = false;
+
+	/*------------------------ TextureAtlas Methods --------------------------*/
+	/** TextureAtlas Constructor. Loads the sheet and reads the index.
+	 * @param sheet, path of the atlas sheet.
+	 * @param index, path of the atlas index.
+	 */
+	public TextureAtlas(String sheet, String index) throws SlickException {
+		this.sheet = new Image(sheet);
+		this.fallback = new SlickImageLoader();
+		try (BufferedReader br = new BufferedReader(new FileReader(index))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				String[] words = line.split(",");
+				regions.put(words[0], new int[] {Integer.parseInt(words[1]),
+						Integer.parseInt(words[2]), Integer.parseInt(words[3]),
+						Integer.parseInt(words[4])});
+			}
+		} catch (IOException e) {
+			throw new SlickException("Failed to read atlas index " + index, e);
+		}
+	}
+
+	/** Chooses the loader for the windowed game: the atlas if it has been
+	 * built, otherwise a loader of separate images.
+	 * @return ImageLoader to load Sprite images with.
+	 */
+	public static ImageLoader loader() throws SlickException {
+		if (new File(SHEET).exists() && new File(INDEX).exists()) {
+			return new TextureAtlas(SHEET, INDEX);
+		}
+		return new SlickImageLoader();
+	}
+
+	/*------------------- Implemented ImageLoader Methods --------------------*/
+	@Override
+	public GameImage load(String path) throws SlickException {
+		int[] region = regions.get(path);
+		if (region != null) {
+			return new Region(region);
+		}
+		//drawn on its own texture, so the span must end first
+		final GameImage image = fallback.load(path);
+		return new GameImage() {
+			@Override
+			public void drawCentered(float x, float y) {
+				flush();
+				image.drawCentered(x, y);
+			}
+
+			@Override
+			public long getTextureBytes() {
+				return image.getTextureBytes();
+			}
+
+			@Override
+			public void destroy() throws SlickException {
+				image.destroy();
+			}
+		};
+	}
+
+	@Override
+	public void flush() {
+		if (batching) {
+			sheet.endUse();
+			batching = false;
+		}
+	}
+
+	/*---------------------------- Helper Types ------------------------------*/
+	/** A region of the sheet, drawn within the atlas' span. */
+	private class Region implements GameImage {
+		/** x, y, width and height of the region in the sheet */
+		private final int x, y, width, height;
+
+		/** Region Constructor.
+		 * @param region, x, y, width and height of the region.
+		 */
+		Region(int[] region) {
+			this.x = region[0];
+			this.y = region[1];
+			this.width = region[2];
+			this.height = region[3];
+		}
+
+		@Override
+		public void drawCentered(float cx, float cy) {
+			if (!batching) {
+				sheet.startUse();
+				batching = true;
+			}
+			float left = cx - width / 2;
+			float top = cy - height / 2;
+			sheet.drawEmbedded(left, top, left + width, top + height,
+					x, y, x + width, y + height);
+		}
+
+		@Override
+		public long getTextureBytes() {
+			return (long) width * height * 4;
+		}
+
+		@Override
+		public void destroy() {
+			//the sheet is shared, and outlives every region
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,69 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * TickEvent class, a Java Flight Recorder event spanning one World update,
+ * with the number of each kind of Sprite at its end and the number
+ * destroyed by it. Only created while a recording has the event enabled, so
+ * costs nothing otherwise.
+ */
+@Name("shadowbuild.Tick")
+@Label("World Tick")
+@Category("Shadow Build")
+@StackTrace(false)
+public class TickEvent extends Event {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** The event's type, read to check whether it is enabled */
+	private static final EventType TYPE = EventType.getEventType(TickEvent.class);
+
+	/* ------------------------- Instance Variables --------------------------*/
+	@Label("Delta")
+	@Timespan(Timespan.MILLISECONDS)
+	private long delta;
+	@Label("Units")
+	private int units;
+	@Label("Buildings")
+	private int buildings;
+	@Label("Resources")
+	private int resources;
+	@Label("Destroyed")
+	private int destroyed;
+
+	/*--------------------------- TickEvent Methods --------------------------*/
+	/** Starts timing an update, if the event is enabled.
+	 * @param delta, milliseconds of game time the update advances.
+	 * @return TickEvent begun, or null if the event is disabled.
+	 */
+	public static TickEvent begin(int delta) {
+		if (!TYPE.isEnabled()) {
+			return null;
+		}
+		TickEvent event = new TickEvent();
+		event.delta = delta;
+		event.begin();
+		return event;
+	}
+
+	/** Ends the update and commits the event.
+	 * @param units, the number of Units after the update.
+	 * @param buildings, the number of Buildings after the update.
+	 * @param resources, the number of Resources after the update.
+	 * @param destroyed, the number of Sprites the update destroyed.
+	 */
+	public void end(int units, int buildings, int resources, int destroyed) {
+		this.units = units;
+		this.buildings = buildings;
+		this.resources = resources;
+		this.destroyed = destroyed;
+		commit();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,180 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.newdawn.slick.Graphics;
+
+/**
+ * TickProfiler class, times each phase of the World's update and render with
+ * System.nanoTime. The last WINDOW times of each phase are kept in a ring,
+ * from which the median, 99th percentile and maximum are worked out when
+ * they are read. Phases that run a system over one kind of Sprite, such as
+ * the unit phase or the training of buildings, are timed apart, so the cost
+ * of each kind can be told apart. Within the unit phase, each type of unit
+ * is timed too, summed over the threads the phase runs on. Recording
+ * allocates nothing, and costs two clock reads a phase.
+ *
+ * The times can be drawn as an overlay beside the HUD, and written as CSV.
+ */
+public class TickProfiler {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Update phases: selection input, free roam keys, the camera, the
+	 * selected Sprite's commands, then each system in the order it runs, and
+	 * the destroy pass */
+	public static final int SELECTION = 0, FREE_ROAM = 1, CAMERA = 2,
+			COMMANDS = 3, UNITS = 4, REFILE = 5, TRAINING = 6, MINES = 7,
+			PYLONS = 8, DESTROY = 9;
+	/** Render phases: the map, each kind of Sprite, the batched draw of the
+	 * Sprites, and the HUD */
+	public static final int RENDER_MAP = 10, RENDER_BUILDINGS = 11,
+			RENDER_RESOURCES = 12, RENDER_UNITS = 13, RENDER_FLUSH = 14,
+			RENDER_HUD = 15;
+	/** Parts of the unit phase spent on each type of unit, in the order of
+	 * their type codes, in nanoseconds of all threads together */
+	public static final int SCOUTS = 16, ENGINEERS = 17, BUILDERS = 18,
+			TRUCKS = 19;
+	/** Names of the phases, by phase */
+	public static final String[] NAMES = {"selection", "freeRoam", "camera",
+			"commands", "units", "refile", "training", "mines", "pylons",
+			"destroy", "map", "renderBuildings", "renderResources",
+			"renderUnits", "flush", "hud", "scouts", "engineers", "builders",
+			"trucks"};
+	/** Number of times kept of each phase, a power of two */
+	public static final int WINDOW = 256;
+	/** Path the CSV is written to by default */
+	public static final String CSV_NAME = "profile.csv";
+	/** Height of a line of the overlay, in pixels */
+	private static final int LINE_HEIGHT = 16;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Ring of the last WINDOW times of each phase, in nanoseconds */
+	private final long[][] samples = new long[NAMES.length][WINDOW];
+	/** Number of times recorded of each phase, ever */
+	private final long[] counts = new long[NAMES.length];
+	/** Times of a phase copied out to be sorted */
+	private final long[] sorted = new long[WINDOW];
+	/** Whether the overlay is drawn */
+	private boolean overlay = false;
+
+	/*------------------------- TickProfiler Methods -------------------------*/
+	/** Starts timing the first of a run of phases.
+	 * @return long, the time now in nanoseconds, to be passed to lap.
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/** Records the time a phase took, and starts timing the next.
+	 * @param phase, the phase that has just finished.
+	 * @param since, the time it started, from start or the last lap.
+	 * @return long, the time now in nanoseconds, to be passed to the next lap.
+	 */
+	public long lap(int phase, long since) {
+		long now = System.nanoTime();
+		samples[phase][(int) (counts[phase]++ & WINDOW - 1)] = now - since;
+		return now;
+	}
+
+	/** Records a time measured elsewhere, such as one summed over threads.
+	 * @param phase, the phase.
+	 * @param nanos, the time it took in nanoseconds.
+	 */
+	public void record(int phase, long nanos) {
+		samples[phase][(int) (counts[phase]++ & WINDOW - 1)] = nanos;
+	}
+
+	/** Phase of a type of unit.
+	 * @param type, the type code of the unit, from SCOUT to TRUCK.
+	 * @return int, the phase its part of the unit phase is recorded as.
+	 */
+	public static int unitPhase(int type) {
+		return SCOUTS + type - EntityStore.SCOUT;
+	}
+
+	/** Number of times kept of a phase.
+	 * @param phase, the phase.
+	 * @return int, at most WINDOW.
+	 */
+	public int size(int phase) {
+		return (int) Math.min(counts[phase], WINDOW);
+	}
+
+	/** Works out a percentile of the times kept of a phase, by nearest rank.
+	 * @param phase, the phase.
+	 * @param fraction, the percentile as a fraction, 0.5 for the median.
+	 * @return long, the time in nanoseconds, 0 if none are kept.
+	 */
+	public long percentile(int phase, double fraction) {
+		int n = size(phase);
+		if (n == 0) {
+			return 0;
+		}
+		System.arraycopy(samples[phase], 0, sorted, 0, n);
+		Arrays.sort(sorted, 0, n);
+		int rank = (int) Math.ceil(fraction * n) - 1;
+		return sorted[Math.max(0, Math.min(n - 1, rank))];
+	}
+
+	/** Longest of the times kept of a phase.
+	 * @param phase, the phase.
+	 * @return long, the time in nanoseconds, 0 if none are kept.
+	 */
+	public long max(int phase) {
+		long max = 0;
+		for (int i = 0; i < size(phase); i++) {
+			max = Math.max(max, samples[phase][i]);
+		}
+		return max;
+	}
+
+	/** Shows the overlay if it is hidden, and hides it if it is shown.
+	 */
+	public void toggleOverlay() {
+		overlay = !overlay;
+	}
+
+	/** Overlay getter.
+	 * @return boolean, true if the overlay is drawn.
+	 */
+	public boolean isOverlayVisible() {
+		return overlay;
+	}
+
+	/** Draws the median, 99th percentile and maximum of each phase, in
+	 * microseconds, one line a phase.
+	 * @param g, graphics used to render.
+	 * @param x, the screen x coordinate of the overlay.
+	 * @param y, the screen y coordinate of its first line.
+	 */
+	public void render(Graphics g, int x, int y) {
+		g.drawString(String.format("%-16s %8s %8s %8s", "phase (us)", "p50",
+				"p99", "max"), x, y);
+		for (int phase = 0; phase < NAMES.length; phase++) {
+			g.drawString(String.format(Locale.ROOT, "%-16s %8.1f %8.1f %8.1f",
+					NAMES[phase], percentile(phase, 0.5) / 1e3,
+					percentile(phase, 0.99) / 1e3, max(phase) / 1e3),
+					x, y + (phase + 1) * LINE_HEIGHT);
+		}
+	}
+
+	/** Writes the median, 99th percentile and maximum of each phase as CSV,
+	 * with a header line.
+	 * @param path, the path of the file, replaced if it exists.
+	 */
+	public void writeCsv(String path) throws IOException {
+		try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+			writer.println("phase,samples,p50_ns,p99_ns,max_ns");
+			for (int phase = 0; phase < NAMES.length; phase++) {
+				writer.printf("%s,%d,%d,%d,%d%n", NAMES[phase], size(phase),
+						percentile(phase, 0.5), percentile(phase, 0.99),
+						max(phase));
+			}
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,201 @@
+import java.io.File;
+import java.util.HashMap;
+import java.util.Properties;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.SpriteSheet;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tileset class, one tileset of a Tiled map, read from a TSX file or from
+ * the tileset element of a TMX file. Holds the properties of its tiles, and
+ * draws them from its image, which is only loaded the first time a tile is
+ * drawn, so a tileset can be read with no OpenGL context.
+ */
+public class Tileset {
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Global id of the first tile */
+	private final int firstGid;
+	/** Number of tiles */
+	private final int tileCount;
+	/** Width and height of a tile in pixels */
+	private final int tileWidth, tileHeight;
+	/** Pixels between tiles, and around the edge of the image */
+	private final int spacing, margin;
+	/** The file the tileset was read from */
+	private final File source;
+	/** Path of the image, and its transparent colour as hex, or empty */
+	private final String imagePath, trans;
+	/** Properties of every tile that has any, keyed by local id */
+	private final HashMap<Integer, Properties> properties = new HashMap<>();
+	/** The image, cut into tiles, null until a tile is first drawn */
+	private SpriteSheet sheet;
+
+	/*---------------------------- Tileset Methods ---------------------------*/
+	/** Tileset Constructor, reads the tileset and the properties of its
+	 * tiles, following a source attribute to a TSX file.
+	 * @param firstGid, the global id of the first tile in the map using it.
+	 * @param tileset, the tileset element.
+	 * @param base, the file the element was read from, which paths are
+	 * relative to.
+	 */
+	public Tileset(int firstGid, Element tileset, File base) throws Exception {
+		this.firstGid = firstGid;
+		if (!tileset.getAttribute("source").isEmpty()) {
+			base = new File(base.getParentFile(), tileset.getAttribute("source"));
+			tileset = parse(base).getDocumentElement();
+		}
+		this.source = base;
+		this.tileWidth = Integer.parseInt(tileset.getAttribute("tilewidth"));
+		this.tileHeight = Integer.parseInt(tileset.getAttribute("tileheight"));
+		this.spacing = parseInt(tileset.getAttribute("spacing"));
+		this.margin = parseInt(tileset.getAttribute("margin"));
+		this.tileCount = parseInt(tileset.getAttribute("tilecount"));
+
+		Element image = (Element) tileset.getElementsByTagName("image").item(0);
+		if (image != null) {
+			this.imagePath = new File(base.getParentFile(),
+					image.getAttribute("source")).getPath();
+			this.trans = image.getAttribute("trans");
+		} else {
+			this.imagePath = null;
+			this.trans = "";
+		}
+
+		NodeList tiles = tileset.getElementsByTagName("tile");
+		for (int i = 0; i < tiles.getLength(); i++) {
+			Element tile = (Element) tiles.item(i);
+			int id = Integer.parseInt(tile.getAttribute("id"));
+			NodeList propNodes = tile.getElementsByTagName("property");
+			Properties props = new Properties();
+			for (int j = 0; j < propNodes.getLength(); j++) {
+				Element prop = (Element) propNodes.item(j);
+				props.setProperty(prop.getAttribute("name"),
+						prop.getAttribute("value"));
+			}
+			properties.put(id, props);
+		}
+	}
+
+	/** Reads a tileset from a file, either a TSX file or a TMX map holding
+	 * the tileset inline.
+	 * @param file, the file.
+	 * @param firstGid, the global id of the first tile, which picks the
+	 * tileset out of a map.
+	 * @return Tileset read.
+	 */
+	public static Tileset read(File file, int firstGid) throws Exception {
+		Element root = parse(file).getDocumentElement();
+		if (root.getTagName().equals("tileset")) {
+			return new Tileset(firstGid, root, file);
+		}
+		NodeList tilesets = root.getElementsByTagName("tileset");
+		for (int i = 0; i < tilesets.getLength(); i++) {
+			Element tileset = (Element) tilesets.item(i);
+			if (tileset.getAttribute("firstgid").equals(String.valueOf(firstGid))) {
+				return new Tileset(firstGid, tileset, file);
+			}
+		}
+		throw new IllegalArgumentException(file + " has no tileset starting at "
+				+ firstGid);
+	}
+
+	/** Parses an XML file, without loading any DTD it names.
+	 * @param file, the file to parse.
+	 * @return Document parsed.
+	 */
+	public static Document parse(File file) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setValidating(false);
+		factory.setFeature(
+				"http://apache.org/xml/features/nonvalidating/load-external-dtd",
+				false);
+		return factory.newDocumentBuilder().parse(file);
+	}
+
+	/** Whether a global id is one of this tileset's tiles. Tilesets that do
+	 * not give their tile count hold every id from their first.
+	 * @param gid, the global id.
+	 * @return boolean, true if it is.
+	 */
+	public boolean contains(int gid) {
+		return gid >= firstGid && (tileCount == 0 || gid < firstGid + tileCount);
+	}
+
+	/** Tile property getter.
+	 * @param gid, the global id of the tile.
+	 * @param name, the name of the property.
+	 * @param def, the value to return if the property is not set.
+	 * @return String value of the property.
+	 */
+	public String getProperty(int gid, String name, String def) {
+		Properties props = properties.get(gid - firstGid);
+		if (props == null) {
+			return def;
+		}
+		return props.getProperty(name, def);
+	}
+
+	/** Starts drawing tiles, loading the image the first time.
+	 */
+	public void startUse() throws SlickException {
+		if (sheet == null) {
+			Color transparent = trans.isEmpty() ? null
+					: new Color(Integer.parseInt(trans, 16));
+			sheet = new SpriteSheet(new Image(imagePath, false, Image.FILTER_NEAREST,
+					transparent), tileWidth, tileHeight, spacing, margin);
+		}
+		sheet.startUse();
+	}
+
+	/** Draws a tile, between startUse and endUse.
+	 * @param gid, the global id of the tile.
+	 * @param x, screen x coordinate to draw at.
+	 * @param y, screen y coordinate to draw at.
+	 */
+	public void renderInUse(int gid, int x, int y) {
+		int local = gid - firstGid;
+		int columns = sheet.getHorizontalCount();
+		sheet.renderInUse(x, y, local % columns, local / columns);
+	}
+
+	/** Finishes drawing tiles.
+	 */
+	public void endUse() {
+		sheet.endUse();
+	}
+
+	/*-------------------------- Getters & Setters ---------------------------*/
+	/** First global id getter.
+	 * @return int global id of the first tile.
+	 */
+	public int getFirstGid() {
+		return firstGid;
+	}
+
+	/** Source getter.
+	 * @return File the tileset was read from, a TSX file or a map.
+	 */
+	public File getSource() {
+		return source;
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Parses an optional int attribute.
+	 * @param value, the attribute's value, empty if it is not set.
+	 * @return int value, 0 if not set.
+	 */
+	private static int parseInt(String value) {
+		return value.isEmpty() ? 0 : Integer.parseInt(value);
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,186 @@
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.newdawn.slick.SlickException;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * TmxGameMap class, a GameMap decoded straight from a TMX file and its
+ * tilesets without loading any images. Used for headless simulation, where
+ * there is no OpenGL context for a Slick TiledMap. It cannot be rendered.
+ */
+public class TmxGameMap implements GameMap {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Bits Tiled uses in a global id to mark flipped tiles */
+	private static final int FLIP_FLAGS = 0xE0000000;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Width and height of the map in tiles */
+	private final int width, height;
+	/** Global tile ids of every layer, indexed by x + y * width */
+	private final ArrayList<int[]> layers = new ArrayList<>();
+	/** Tilesets of the map, in order of first global id */
+	private final ArrayList<Tileset> tilesets = new ArrayList<>();
+
+	/*------------------------- TmxGameMap Methods ---------------------------*/
+	/** TmxGameMap Constructor, decodes the map, its layers and the tile
+	 * properties of all its tilesets.
+	 * @param ref, the path to the TMX file.
+	 */
+	public TmxGameMap(String ref) throws SlickException {
+		try {
+			File file = new File(ref);
+			Element map = Tileset.parse(file).getDocumentElement();
+			width = Integer.parseInt(map.getAttribute("width"));
+			height = Integer.parseInt(map.getAttribute("height"));
+
+			//Read the tile properties of every tileset, inline or external
+			NodeList tilesetNodes = map.getElementsByTagName("tileset");
+			for (int i = 0; i < tilesetNodes.getLength(); i++) {
+				Element tileset = (Element) tilesetNodes.item(i);
+				tilesets.add(new Tileset(Integer.parseInt(
+						tileset.getAttribute("firstgid")), tileset, file));
+			}
+
+			//Decode every tile layer
+			NodeList layerNodes = map.getElementsByTagName("layer");
+			for (int i = 0; i < layerNodes.getLength(); i++) {
+				Element data = (Element) ((Element) layerNodes.item(i))
+						.getElementsByTagName("data").item(0);
+				layers.add(decode(data));
+			}
+		} catch (Exception e) {
+			throw new SlickException("Failed to load map " + ref, e);
+		}
+	}
+
+	/*--------------------- Implemented GameMap Methods ----------------------*/
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getTileId(int x, int y, int layer) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return 0;
+		}
+		return layers.get(layer)[x + y * width];
+	}
+
+	@Override
+	public String getTileProperty(int tileId, String name, String def) {
+		for (int i = tilesets.size() - 1; i >= 0; i--) {
+			if (tilesets.get(i).contains(tileId)) {
+				return tilesets.get(i).getProperty(tileId, name, def);
+			}
+		}
+		return def;
+	}
+
+	/** Pages in nothing, as the whole map is held in memory.
+	 * @param tileX, x coordinate of the top left tile, in tiles.
+	 * @param tileY, y coordinate of the top left tile, in tiles.
+	 * @param width, number of columns of tiles.
+	 * @param height, number of rows of tiles.
+	 */
+	@Override
+	public void prefetch(int tileX, int tileY, int width, int height) {}
+
+	/** Render method, does nothing as no tileset images are loaded.
+	 * @param x, screen x coordinate to draw at.
+	 * @param y, screen y coordinate to draw at.
+	 */
+	@Override
+	public void render(int x, int y) {}
+
+	/** Render method for part of the map, does nothing as no tileset images
+	 * are loaded.
+	 * @param x, screen x coordinate to draw at.
+	 * @param y, screen y coordinate to draw at.
+	 * @param tileX, x coordinate of the top left tile to draw, in tiles.
+	 * @param tileY, y coordinate of the top left tile to draw, in tiles.
+	 * @param width, number of columns of tiles to draw.
+	 * @param height, number of rows of tiles to draw.
+	 */
+	@Override
+	public void render(int x, int y, int tileX, int tileY, int width, int height) {}
+
+	/** Tilesets getter.
+	 * @return ArrayList of the map's tilesets, in order of first global id.
+	 */
+	public ArrayList<Tileset> getTilesets() {
+		return tilesets;
+	}
+
+	/** Layer count getter.
+	 * @return int number of tile layers.
+	 */
+	public int getLayerCount() {
+		return layers.size();
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Decodes the tile ids of a layer, from either CSV or base64 data with
+	 * optional gzip or zlib compression.
+	 * @param data, the data element of the layer.
+	 * @return int array of global tile ids.
+	 */
+	private int[] decode(Element data) throws IOException {
+		int[] tiles = new int[width * height];
+		String encoding = data.getAttribute("encoding");
+		String text = data.getTextContent().trim();
+
+		if (encoding.equals("csv")) {
+			String[] cells = text.split("\\s*,\\s*");
+			for (int i = 0; i < tiles.length; i++) {
+				tiles[i] = (int)(Long.parseLong(cells[i].trim()) & ~FLIP_FLAGS);
+			}
+			return tiles;
+		}
+
+		byte[] raw = Base64.getMimeDecoder().decode(text);
+		InputStream in = new ByteArrayInputStream(raw);
+		String compression = data.getAttribute("compression");
+		if (compression.equals("gzip")) {
+			in = new GZIPInputStream(in);
+		} else if (compression.equals("zlib")) {
+			in = new InflaterInputStream(in);
+		}
+
+		byte[] bytes = new byte[tiles.length * 4];
+		int read = 0;
+		while (read < bytes.length) {
+			int n = in.read(bytes, read, bytes.length - read);
+			if (n < 0) {
+				throw new IOException("Layer data ended early");
+			}
+			read += n;
+		}
+		in.close();
+
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < tiles.length; i++) {
+			tiles[i] = buffer.getInt() & ~FLIP_FLAGS;
+		}
+		return tiles;
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
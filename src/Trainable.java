@@ -27,8 +27,9 @@ public interface Trainable {
 	public static final int TRAIN_TIME_S=5000;
 	
 	/*-------------------------- Trainable Methods ---------------------------*/
-	/** Abstract train method which handles the costs, delays associated with
-	 * training and creating new Sprites
+	/** Abstract train method which creates the trained Sprite. Costs are
+	 * handled when training is ordered, and the delay by the training system,
+	 * which calls this method once the delay has passed.
 	 * @param world, to pass the creation message when needed.
 	 */
 	public abstract void train(World world);
@@ -0,0 +1,53 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * TrainingEvent class, a Java Flight Recorder event for a training job
+ * that has finished, and created what it was training.
+ * Only created while a recording has the event enabled, so costs nothing
+ * otherwise.
+ */
+@Name("shadowbuild.TrainingCompleted")
+@Label("Training Completed")
+@Category("Shadow Build")
+@StackTrace(false)
+public class TrainingEvent extends Event {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** The event's type, read to check whether it is enabled */
+	private static final EventType TYPE = EventType.getEventType(TrainingEvent.class);
+
+	/* ------------------------- Instance Variables --------------------------*/
+	@Label("Trainer")
+	private String trainer;
+	@Label("Product")
+	private String product;
+	@Label("Training Time")
+	@Timespan(Timespan.MILLISECONDS)
+	private long trainingTime;
+
+	/*------------------------ TrainingEvent Methods -------------------------*/
+	/** Commits the event, if it is enabled.
+	 * @param trainer, the EntityStore type code of the Trainable.
+	 * @param product, the type code of what it trained.
+	 * @param trainingTime, milliseconds the job took.
+	 */
+	public static void emit(int trainer, int product, int trainingTime) {
+		if (!TYPE.isEnabled()) {
+			return;
+		}
+		TrainingEvent event = new TrainingEvent();
+		event.trainer = EntityStore.NAMES[trainer];
+		event.product = EntityStore.NAMES[product];
+		event.trainingTime = trainingTime;
+		event.commit();
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
@@ -0,0 +1,46 @@
+/**
+ * TrainingSystem class, advances every training job in the EntityStore,
+ * iterating the store's set of busy entities. Once a job's duration has passed,
+ * the Trainable is told to create what it was training.
+ */
+public class TrainingSystem {
+	
+	/*------------------------ TrainingSystem Methods ------------------------*/
+	/** Advances every Building with the BUSY flag by one update, visiting
+	 * only the busy entities. Units are advanced by the UnitPhase.
+	 * @param world, the world passing delta and creating trained Sprites.
+	 */
+	public static void updateBuildings(World world) {
+		EntityStore store = world.getStore();
+		EntitySet busy = store.withFlag(EntityStore.BUSY);
+		for (int id = busy.next(0); id >= 0; id = busy.next(id + 1)) {
+			if (!EntityStore.isUnit(store.type[id])) {
+				step(world, store, id);
+			}
+		}
+	}
+	
+	/** Advances a single training job by one update.
+	 * @param world, the world passing delta and creating trained Sprites.
+	 * @param store, the store holding the Trainable.
+	 * @param id, the id of the Trainable.
+	 */
+	public static void step(World world, EntityStore store, int id) {
+		//Waiting until enough time has past
+		if (store.timer[id] < store.duration[id]) {
+			store.timer[id] += world.getDelta();
+			
+		//finished waiting, reset delay and create the product
+		} else {
+			int product = store.product[id];
+			store.timer[id] = 0;
+			((Trainable) store.views[id]).train(world);
+			store.setFlag(id, EntityStore.BUSY, false);
+			store.product[id] = EntityStore.NONE;
+			TrainingEvent.emit(store.type[id], product, store.duration[id]);
+		}
+	}
+	
+	/*------------------------------------------------------------------------*/
+	
+}
@@ -13,34 +13,39 @@ public class Truck extends Unit implements Trainable {
 	/** Speed of a truck */
 	private static final float SPEED=0.25f;
 	
-	/* ------------------------- Instance Variables --------------------------*/
-	/** Generic Trainable boolean indicating whether Truck is busy training */
-	private boolean isBusy=false;
-	/** Generic Trainable pastTime variable used to program delays */
-	private int pastTime=0;
-	
 	/*--------------------------- Truck Methods ------------------------------*/
 	/** Truck Constructor.
      * @param x, the initial x coordinate of the Truck.
      * @param y, the initial y coordinate of the Truck.
      * @param camera, the camera which will handle it's rendered location.
+     * @param store, the store to create the Truck's entity in.
 	 */
-	public Truck(float x, float y, Camera camera) throws SlickException {
-		super(x, y, camera);
+	public Truck(float x, float y, Camera camera, EntityStore store) 
+			throws SlickException {
+		super(x, y, camera, store, EntityStore.TRUCK, SPEED);
+		reset();
+	}
+	
+	/** Reset hook, sets the Truck's image.
+	 */
+	@Override
+	protected void reset() throws SlickException {
+		super.reset();
 		this.setImage(TRUCK_IMG);
 	}
 
 	/*---------------------- Inherited Sprite Methods ------------------------*/
-    /**	Update method handles movement if selected, as well as the training of
-     * Command Centres if instructed to do so.
-     * @param world, the world object passing through delta and input.
+    /**	Update method handles movement commands if selected, as well as 
+     * commands to train Command Centres. The movement and training systems 
+     * carry them out.
+     * @param world, the world object passing through input.
      */
 	@Override
 	public void update(World world) {
 		//only pass input if selected, and not already training
-		if (this.selected && (!isBusy)) {
+		if (this.selected && (!store.hasFlag(id, EntityStore.BUSY))) {
 			
-			Input input=world.getInput();
+			GameInput input=world.getInput();
 			
 			//Move
 			if (input.isMousePressed(Input.MOUSE_RIGHT_BUTTON)) {
@@ -50,54 +55,30 @@ public class Truck extends Unit implements Trainable {
 						(float)(camera.screenYToGlobalY(input.getMouseY())));
 			//Or train
 			} else if (input.isKeyPressed(Input.KEY_1)) {
-				if (world.canBuildHere(this.getPosition()) && world.grantResource(CENTRE_COST)) {
-					isBusy=true;
+				if (world.canBuildHere(this.getX(), this.getY()) && world.grantResource(CENTRE_COST)) {
 					//halt movement when training.
 					setMoveUnit(false);
-					train(world);
+					store.startTraining(id, EntityStore.COMMAND_CNTR,
+							Trainable.TRAIN_TIME_L);
 				}
 				camera.centerOn(this);
 			}
 		}
-		
-		//If moving, continue
-		if (isMoveUnit()==true) {
-			this.move(world,SPEED);
-		}
-		
-		//if training, continue
-		if (isBusy) {
-			train(world);
-		}
 	}
 	
 	/*--------------------- Implemented Trainable Methods --------------------*/
-    /**	Implemented train method that uses the pastTime variable to
-     * keep track of training completion. Once enough time has passed, a
-     * Command Centre is created at the Trucks location, and the Truck is 
-     * passed to the cache to be destroyed.
-     * @param world, the world object passing through delta
+    /**	Implemented train method, called by the training system once enough
+     * time has passed. A Command Centre is created at the Trucks location, 
+     * and the Truck is passed to the cache to be destroyed.
+     * @param world, the world object to create the Command Centre in.
      */
+	@Override
 	public void train(World world) {
-		int delta = world.getDelta();
-		
-		//While waiting increase time
-		if (this.pastTime < Trainable.TRAIN_TIME_L) {
-			this.pastTime += delta;
-			
-		//No longer waiting
-		} else {
-			//Reset delay, create Cmnd Cntr at location, pass self to cache.
-			this.pastTime = 0;
-		    float xPos=this.getPosition().getX();
-			float yPos=this.getPosition().getY();
-		    try {
-				world.createSprite(World.COMMAND_CNTR, xPos,yPos);
-				world.removeSprite(this);
-			} catch (SlickException e) {
-				e.printStackTrace();
-			}
-		    isBusy=false;
+		try {
+			world.createSprite(World.COMMAND_CNTR, this.getX(), this.getY());
+			world.removeSprite(this);
+		} catch (SlickException e) {
+			e.printStackTrace();
 		}
 	}
 	
@@ -1,4 +1,3 @@
-import org.newdawn.slick.Image;
 import org.newdawn.slick.SlickException;
 
 
@@ -14,29 +13,38 @@ public abstract class Unit extends Sprite implements Moveable, Selectable {
 	
 	/* ------------------------- Static Variables ----------------------------*/
 	/** Small highlight image constant among all buildings */
-	public static Image highlight;
+	public static GameImage highlight;
 	
 	/*-----------------------------Instance variables ------------------------*/
-	/** Boolean to guard movement */
-	private boolean moveUnit=false;
-	/** Position destination determines where to move to, set by input */
-	private Position destination;
 	/** Boolean selection, used to guard against input and highlighting */
 	public boolean selected=false;
+	/** Speed at which the Unit moves */
+	private final float speed;
 
 	/*----------------------------- Unit Methods -----------------------------*/
-    /** Unit Constructor. Sets highlight and destination.
+    /** Unit Constructor. Sets highlight, speed and destination.
      * @param x, the initial x coordinate of the Unit.
      * @param y, the initial y coordinate of the Unit.
      * @param camera, the camera which will handle it's rendered location.
+     * @param store, the store to create the Unit's entity in.
+     * @param type, the EntityStore type code of the Unit.
+     * @param speed, the speed at which the Unit moves.
      */
-	public Unit(float x, float y, Camera camera) throws SlickException {
-		super(x, y, camera);
-		float dummyX=x;
-		float dummyY=y;
-		//initial destination is current position.
-		this.destination=new Position(dummyX,dummyY);
-		Unit.highlight= new Image(Selectable.HIGHLIGHT);
+	public Unit(float x, float y, Camera camera, EntityStore store, int type,
+			float speed) throws SlickException {
+		super(x, y, camera, store, type);
+		this.speed=speed;
+		Unit.highlight= Sprite.loadImage(Selectable.HIGHLIGHT);
+	}
+	
+	/** Reset hook. The Unit starts unselected at its speed, and its initial
+	 * destination is its position, set by the store.
+	 */
+	@Override
+	protected void reset() throws SlickException {
+		super.reset();
+		this.selected=false;
+		store.speed[id]=speed;
 	}
 	
 	/*---------------------- Inherited Sprite Methods ------------------------*/
@@ -48,8 +56,8 @@ public abstract class Unit extends Sprite implements Moveable, Selectable {
 		if (this.selected) {
 			this.highlight();
 		}
-		this.getImage().drawCentered((int)camera.globalXToScreenX(this.getPosition().getX()),
-				(int)camera.globalYToScreenY(this.getPosition().getY()));
+		this.getImage().drawCentered((int)camera.globalXToScreenX(this.getRenderX()),
+				(int)camera.globalYToScreenY(this.getRenderY()));
 		
 	}
 	
@@ -59,8 +67,8 @@ public abstract class Unit extends Sprite implements Moveable, Selectable {
 	 */
 	@Override
 	public void highlight() {
-		Unit.highlight.drawCentered((int)camera.globalXToScreenX(this.getPosition().getX()),
-				(int)camera.globalYToScreenY(this.getPosition().getY()));
+		Unit.highlight.drawCentered((int)camera.globalXToScreenX(this.getRenderX()),
+				(int)camera.globalYToScreenY(this.getRenderY()));
 	}
 	
 	/** select method, simply sets the boolean "selected" to true, and centres
@@ -81,45 +89,22 @@ public abstract class Unit extends Sprite implements Moveable, Selectable {
 
 	
 	/*--------------------- Implemented Moveable Methods ---------------------*/
-	/** Standard move method implementation, constant across all units. uses 
-	 * the position class to calculate distance and direction, and uses this
-	 * and worlds delta to progressively move a unit towards its destination.
+	/** Standard move method implementation, constant across all units. The
+	 * movement system moves every moving unit each update, this moves only 
+	 * this one.
 	 * @param world, the world object passing delta.
 	 * @param speed, the speed at which the unit should move.
 	 */
 	@Override
 	public void move(World world,float speed) {
-		int delta=world.getDelta();
-		
-		//calculate the distance to the destination from current position
-		double distance = Position.distance(this.getPosition(),
-				this.getDestination());
-		
-		//If close to destination, stop moving
-		if (distance <= STOP_DIST) {
-			stop();
-			
-		//Otherwise, get direction and move a small distance toward it.
-		} else {
-			double direction = this.getPosition().direction(this.getDestination());
-			
-			// Calculate the appropriate dx and dy distances
-			double dx = (double)Math.cos(direction) * delta * speed;
-			double dy = (double)Math.sin(direction) * delta * speed;
-			
-			// Check the tile is free before moving; otherwise, we stop moving
-			if (world.isPositionFree(this.getPosition().getX() + dx,
-					this.getPosition().getY() + dy)) {
-				this.setPosition((float)(this.getPosition().getX() + dx),
-							(float)(this.getPosition().getY() + dy));
-			} else {
-				stop();
-			}
-		}
+		float oldX=getX();
+		float oldY=getY();
+		MovementSystem.move(world, store, id, speed);
+		refile(oldX, oldY);
 	}
 	
-	/** Stop method which simply sets the boolean guard to false. The move
-	 * method is not called when the guard is false.
+	/** Stop method which simply clears the moving flag. The movement system
+	 * does not move units without the flag.
 	 */
 	@Override
 	public void stop() {
@@ -133,18 +118,37 @@ public abstract class Unit extends Sprite implements Moveable, Selectable {
 	 * @return Position of destination copy
 	 */
     public Position getDestination() {
-    	Position dummy = new Position(this.destination.getX(),this.destination.getY());
-    	return dummy;
+    	return new Position(getDestinationX(),getDestinationY());
+    }
+    
+    /** Destination x getter, reads the destination without copying it.
+     * @return float x coordinate of destination
+     */
+    public float getDestinationX() {
+    	return store.destX[id];
+    }
+    
+    /** Destination y getter, reads the destination without copying it.
+     * @return float y coordinate of destination
+     */
+    public float getDestinationY() {
+    	return store.destY[id];
     }
     
     /** Destination setter, used in update or elsewhere to set the unit moving
-     * toward the position set.
+     * toward the position set. Any Command Centre the unit was heading for
+     * is forgotten, so a carrying Engineer no longer follows its flow field.
      * @param x, x coordinate of destination.
      * @param y, y coordinate of destination.
      */
     public void setDestination(float x,float y) {
-    	this.destination.setX(x);
-    	this.destination.setY(y);
+    	store.goal[id]=EntityStore.NO_HANDLE;
+    	if (x >= 0) {
+    		store.destX[id]=x;
+    	}
+    	if (y >= 0) {
+    		store.destY[id]=y;
+    	}
     }
     
     /** Destination setter, used in update or elsewhere to set the unit moving
@@ -152,7 +156,7 @@ public abstract class Unit extends Sprite implements Moveable, Selectable {
      * @param Position other, the exact position of the destination.
      */
     public void setDestination(Position other) {
-    	this.destination=other;
+    	setDestination(other.getX(),other.getY());
     }
     
     /** moveUnit getter, used to determine if a unit is moving, so that it 
@@ -160,7 +164,7 @@ public abstract class Unit extends Sprite implements Moveable, Selectable {
      * @return boolean, indicating whether unit is moving or not (T or F).
      */
 	public boolean isMoveUnit() {
-		return moveUnit;
+		return store.hasFlag(id, EntityStore.MOVING);
 	}
 	
 	/** moveUnit setter, used to set the boolean to true or false, depending
@@ -168,7 +172,7 @@ public abstract class Unit extends Sprite implements Moveable, Selectable {
 	 * @param moveUnit, the boolean to be set.
 	 */
 	public void setMoveUnit(boolean moveUnit) {
-		this.moveUnit = moveUnit;
+		store.setFlag(id, EntityStore.MOVING, moveUnit);
 	}
 	
 	/*------------------------------------------------------------------------*/
@@ -0,0 +1,163 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * UnitPhase class, runs the movement, mining and training of every unit in
+ * the EntityStore, split into fixed size chunks of entity ids. Chunks run
+ * across a ForkJoin pool when there is more than one thread, or one after
+ * another otherwise. Each chunk records its changes to the World in its own
+ * CommandBuffer, and the buffers are applied in chunk order at the end, so
+ * the result is identical however many threads are used. The time spent on
+ * each type of unit is recorded in the World's TickProfiler, reading the
+ * clock only where the type changes from one unit to the next.
+ */
+public class UnitPhase {
+
+	/* -------------------- Static Variables & Constants ---------------------*/
+	/** Number of entity ids in each chunk */
+	public static final int CHUNK = 512;
+	/** Number of unit types, from SCOUT to TRUCK */
+	private static final int TYPES = EntityStore.TRUCK - EntityStore.SCOUT + 1;
+
+	/* ------------------------- Instance Variables --------------------------*/
+	/** Pool the chunks run on, null when running on one thread */
+	private final ForkJoinPool pool;
+	/** One command buffer per chunk, reused every update */
+	private final ArrayList<CommandBuffer> buffers = new ArrayList<>();
+	/** One task per chunk, reused every update */
+	private final ArrayList<ChunkTask> tasks = new ArrayList<>();
+	/** Nanoseconds each chunk spent on each type of unit, reused every update */
+	private final ArrayList<long[]> typeNanos = new ArrayList<>();
+	/** The World being updated, while the phase runs */
+	private World world;
+
+	/*--------------------------- UnitPhase Methods --------------------------*/
+	/** UnitPhase Constructor.
+	 * @param threads, the number of threads to run chunks on.
+	 */
+	public UnitPhase(int threads) {
+		this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+	}
+
+	/** Runs the phase for every unit, then applies the command buffers.
+	 * @param world, the World being updated.
+	 */
+	public void run(World world) {
+		this.world = world;
+		int chunks = (world.getStore().size() + CHUNK - 1) / CHUNK;
+		while (buffers.size() < chunks) {
+			buffers.add(new CommandBuffer());
+			tasks.add(new ChunkTask(tasks.size()));
+			typeNanos.add(new long[TYPES]);
+		}
+
+		if (pool == null || chunks <= 1) {
+			for (int c = 0; c < chunks; c++) {
+				runChunk(c);
+			}
+		} else {
+			for (int c = 0; c < chunks; c++) {
+				tasks.get(c).reinitialize();
+			}
+			pool.invoke(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					invokeAll(tasks.subList(0, chunks));
+				}
+			});
+		}
+
+		//Merge every chunk's changes, in chunk order
+		for (int c = 0; c < chunks; c++) {
+			buffers.get(c).apply(world);
+		}
+
+		//Sum the time spent on each type of unit over the chunks
+		TickProfiler profiler = world.getProfiler();
+		for (int t = 0; t < TYPES; t++) {
+			long nanos = 0;
+			for (int c = 0; c < chunks; c++) {
+				nanos += typeNanos.get(c)[t];
+			}
+			profiler.record(TickProfiler.unitPhase(EntityStore.SCOUT + t), nanos);
+		}
+		this.world = null;
+	}
+
+	/** Stops the pool's threads, once the phase is no longer needed.
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	/*------------------------- Private Helper Methods -----------------------*/
+	/** Runs every unit in a chunk, with changes to the World going to the
+	 * chunk's command buffer.
+	 * @param chunk, the index of the chunk.
+	 */
+	private void runChunk(int chunk) {
+		EntityStore store = world.getStore();
+		CommandBuffer buffer = buffers.get(chunk);
+		int end = Math.min(store.size(), (chunk + 1) * CHUNK);
+
+		EntitySet units = store.units();
+		long[] nanos = typeNanos.get(chunk);
+		Arrays.fill(nanos, 0);
+		int runType = EntityStore.NONE;
+		long runStart = 0;
+
+		world.setCommandBuffer(buffer);
+		for (int id = units.next(chunk * CHUNK); id >= 0 && id < end;
+				id = units.next(id + 1)) {
+			//time runs of units of the same type, ending one as the next starts
+			if (store.type[id] != runType) {
+				long now = System.nanoTime();
+				if (runType != EntityStore.NONE) {
+					nanos[runType - EntityStore.SCOUT] += now - runStart;
+				}
+				runType = store.type[id];
+				runStart = now;
+			}
+			if (store.hasFlag(id, EntityStore.MOVING)) {
+				MovementSystem.move(world, store, id, store.speed[id]);
+			}
+			if (store.type[id] == EntityStore.ENGINEER) {
+				MiningSystem.step(world, store, id, buffer.getScratch());
+			}
+			if (store.hasFlag(id, EntityStore.BUSY)) {
+				TrainingSystem.step(world, store, id);
+			}
+		}
+		if (runType != EntityStore.NONE) {
+			nanos[runType - EntityStore.SCOUT] += System.nanoTime() - runStart;
+		}
+		world.setCommandBuffer(null);
+	}
+
+	/*---------------------------- Helper Types ------------------------------*/
+	/** Task running a single chunk on the pool. */
+	private class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		/** Index of the chunk this task runs */
+		private final int chunk;
+
+		/** ChunkTask Constructor.
+		 * @param chunk, index of the chunk to run.
+		 */
+		ChunkTask(int chunk) {
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			runChunk(chunk);
+		}
+	}
+
+	/*------------------------------------------------------------------------*/
+
+}
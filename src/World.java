@@ -1,11 +1,6 @@
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
 
 import org.newdawn.slick.*;
-import org.newdawn.slick.tiled.TiledMap;
 
 /* Attribution to Eleanor McCurty <mcmurtrye@unimelb.edu.au> for sampled code from 
  * Project 1 Sample solution.
@@ -20,10 +15,10 @@ public class World {
 	/* ----------------------------- Constants -------------------------------*/
 	/** Tile height and width in pixels */
     public static final int TILE_SIZE=64;
-    /** CSV comma used to seperate cells during parsing */
-    private static final String CSV_SEPARATOR =",";
     /** String storing path of CSV file to initialise initial Sprites */
-    private static final String CSV_NAME="assets/objects.csv";
+    public static final String CSV_NAME="assets/objects.csv";
+    /** String storing path of the TMX map file */
+    public static final String MAP_NAME="assets/main.tmx";
     
     /** String to display on HUD when a Command Centre is selected */
     private static final String CMND_CNTR_STR=
@@ -39,6 +34,24 @@ public class World {
     /** String to display on HUD when a Pylon is selected and inactive */
     private static final String PYLON_STR_INACTIVE="Inactive\n";
     
+    /** String to display on HUD for each type of selected sprite, indexed
+     * by type code, null for none. Active Pylons display PYLON_STR_ACTIVE */
+    private static final String[] HUD_STRINGS=new String[EntityStore.NAMES.length];
+    static {
+    	HUD_STRINGS[EntityStore.COMMAND_CNTR]=CMND_CNTR_STR;
+    	HUD_STRINGS[EntityStore.FACTORY]=FACTORY_STR;
+    	HUD_STRINGS[EntityStore.BUILDER]=BUILDER_STR;
+    	HUD_STRINGS[EntityStore.TRUCK]=TRUCK_STR;
+    	HUD_STRINGS[EntityStore.PYLON]=PYLON_STR_INACTIVE;
+    }
+    
+    /** Most entities destroyed in one update, the rest wait for the next */
+    private static final int MAX_REMOVALS=1024;
+    
+    /** Distance outside the screen that Sprites are still drawn within, 
+     * enough for the largest image and a tick of interpolation */
+    private static final int CULL_MARGIN=TILE_SIZE;
+    
     /** String storing the name of a factory, for commonality when needed */ 
     public static final String FACTORY="factory";
     /** String storing the name of a Command centre, for commonality when needed */
@@ -63,99 +76,220 @@ public class World {
     
 	/* ------------------------- Instance Variables --------------------------*/
     //Comments for these were not required, and are fairly straight forward
-	private TiledMap map;
+	private GameMap map;
+	/** Draws the visible part of the map, created on the first render */
+	private MapRenderer mapRenderer;
+	/** Solid and occupied tiles of the map, decoded once */
+	private PassabilityMap passability;
+	/** Flow field toward every Command Centre */
+	private FlowFieldCache flowFields;
+	/** Nearest Command Centre to every tile */
+	private CentreIndex centres;
 	/** The currently selected sprite */
 	private Selectable selected;
 	private Camera camera= new Camera();
-	private Input lastInput;
-	private ArrayList <Building> buildings=new ArrayList<>();
-	private ArrayList <Resource> resources= new ArrayList<>();
-	private ArrayList <Unit> units=new ArrayList<>();
-	private ArrayList <Sprite> toDestroy = new ArrayList<>();
+	private GameInput lastInput;
+	/** Component arrays holding the state of every entity */
+	private EntityStore store=new EntityStore();
+	private SpriteRegistry <Building> buildings=new SpriteRegistry<>();
+	private SpriteRegistry <Resource> resources= new SpriteRegistry<>();
+	private SpriteRegistry <Unit> units=new SpriteRegistry<>();
+	/** Handles of the entities waiting to be destroyed */
+	private RemovalQueue toDestroy=new RemovalQueue();
+	/** Destroyed sprites kept to be respawned */
+	private SpritePool pool=new SpritePool();
+	/** Times of each phase of the update and render */
+	private TickProfiler profiler=new TickProfiler();
+	/** Records the state after each update, or null if not recording */
+	private StateRecorder stateRecorder;
+	/** Tile bucketed hash of every Sprite, used for proximity queries,
+	 * picking and culling */
+	private SpatialHash grid;
+	/** Reused list of the Sprites on screen, filled every render */
+	private ArrayList<Sprite> visible=new ArrayList<>();
+	/** Runs every unit's systems, across threads if there are several */
+	private UnitPhase unitPhase=new UnitPhase(
+			Runtime.getRuntime().availableProcessors());
+	/** The command buffer of the unit phase chunk running on each thread */
+	private final ThreadLocal<CommandBuffer> deferred=new ThreadLocal<>();
 	private int lastDelta;
 	
 	/** Amount of Metal that is spendable by the Player */
 	private int metal = 0;
 	/** Amount of Unobtainium the Player has acquired */
 	private int unobtainium = 0;
+	/** Capacity of any Resource an Engineer can carry, raised by Pylons */
+	private int allowance = Engineer.ALLOWANCE;
 
 	/*---------------------------- World Methods -----------------------------*/
-	/** World Constructor. Initialises the map, map width & height, loads all
-	 * initial Game Objects from a CSV, selects the first unit, and centres
-	 * the camera over it.
+	/** World Constructor. Initialises the Slick map, map width & height, 
+	 * loads all initial Game Objects from a CSV, selects the first unit, and 
+	 * centres the camera over it. Sprite images come from the texture atlas
+	 * if it has been built.
 	 */
 	public World () throws SlickException {
-		map = new TiledMap("assets/main.tmx");
+		this(new SlickGameMap(MAP_NAME), TextureAtlas.loader(), CSV_NAME);
+	}
+	
+	/** World Constructor used for both windowed and headless worlds. Sets the
+	 * image loader used by Sprites, initialises the map width & height, loads
+	 * the initial Game Objects from a CSV, and selects the first unit if any.
+	 * @param map, the tile map of the world.
+	 * @param images, the loader Sprites will load their images with.
+	 * @param objects, the path of the CSV of initial Sprites, or null.
+	 */
+	public World (GameMap map, ImageLoader images, String objects) 
+			throws SlickException {
+		Sprite.setImageLoader(images);
+		this.map = map;
 		MAPHEIGHT=map.getHeight()*TILE_SIZE;
 		MAPWIDTH=map.getWidth()*TILE_SIZE;
+		passability=new PassabilityMap(map);
+		flowFields=new FlowFieldCache(passability);
+		centres=new CentreIndex(map.getWidth(),map.getHeight());
+		grid=new SpatialHash(MAPWIDTH,MAPHEIGHT,TILE_SIZE);
 		
-		load(CSV_NAME);
-		selected=units.get(0);
-		camera.centerOn((Sprite)selected);
+		if (objects != null) {
+			load(objects);
+		}
+		selectFirstUnit();
 	}
 	
 	/** World update method deals with game-specific inputs, such as Sprite 
 	 * Selection, and camera WASD movement. It also updates all Sprites and 
-	 * empties a cache of Sprites to be removed.
+	 * destroys the Sprites queued for removal, up to MAX_REMOVALS of them.
 	 * @param input, input from the user.
 	 * @param delta, milliseconds since last frame.
 	 */
-	public void update(Input input, int delta) {
+	public void update(GameInput input, int delta) {
+		TickEvent tick = TickEvent.begin(delta);
+		long started = System.nanoTime();
 		lastInput = input;
 		lastDelta = delta;
 		
+		//Remember where everything was, for render interpolation
+		savePositions();
+		
 		//ESC to exit.
 		if (input.isKeyDown(Input.KEY_ESCAPE)) {
 			System.exit(0);
 		}
 		
 		//Get selection
+		long time=profiler.start();
 		getSelection(input);
+		time=profiler.lap(TickProfiler.SELECTION, time);
 		
 		//Activate free camera roam with WASD
 		activateFreeRoam();
+		time=profiler.lap(TickProfiler.FREE_ROAM, time);
 		
 		//Update the camera, and all Sprites
 		camera.update(this);
-		updateSprites();
+		prefetchMap();
+		time=profiler.lap(TickProfiler.CAMERA, time);
+		time=updateSprites(time);
 		
-		//Empty the cache
-		if (!this.toDestroy.isEmpty()) {
-			for (Sprite s: this.toDestroy) {
-				destroySprite(s);
+		//Empty the queue, skipping handles that have gone stale
+		int destroyed=0;
+		for (int i=0; i<MAX_REMOVALS && toDestroy.size()>0; i++) {
+			int id=store.resolve(toDestroy.poll());
+			if (id>=0) {
+				destroySprite(store.views[id]);
+				destroyed++;
 			}
 		}
+		profiler.lap(TickProfiler.DESTROY, time);
+		
+		if (tick!=null) {
+			tick.end(units.list().size(), buildings.list().size(),
+					resources.list().size(), destroyed);
+		}
+		if (stateRecorder!=null) {
+			stateRecorder.record(this, delta, System.nanoTime()-started);
+		}
 	} 
 	
 	//Render method, renders map, Sprites and HUD text displays
-	/** Render method, renders the map at the position determined
-	 * by the camera. Renders all Sprites, and HUD text last.
+	/** Render method, renders the part of the map under the camera, in 
+	 * cached chunks. Renders all Sprites, and HUD text last. Positions are
+	 * interpolated between the last two updates.
 	 * @param g, the Graphics from Slick.
+	 * @param alpha, fraction of an update passed since the last one ran.
 	 */
-	public void render(Graphics g) {
-		map.render((int)camera.globalXToScreenX(0),
-				   (int)camera.globalYToScreenY(0));
-		renderSprites();
+	public void render(Graphics g, float alpha) {
+		camera.setAlpha(alpha);
+		if (mapRenderer==null) {
+			mapRenderer=new MapRenderer(map);
+		}
+		long time=profiler.start();
+		mapRenderer.render(g, camera, App.WINDOW_WIDTH, App.WINDOW_HEIGHT);
+		time=profiler.lap(TickProfiler.RENDER_MAP, time);
+		time=renderSprites(time);
+		Sprite.getAssets().flush();
+		time=profiler.lap(TickProfiler.RENDER_FLUSH, time);
 		renderText(g);
+		profiler.lap(TickProfiler.RENDER_HUD, time);
 	}
 
 
 	/*------------------------ Update Helper Methods -------------------------*/
-	/** updateSprites method, loops through all arraylists of sprites and 
-	 * updates them in order
+	/** updateSprites method, passes commands to the selected sprite, then
+	 * runs each system over the entity store in order, timing each. Units
+	 * are updated by the unit phase, whose changes to the World are merged
+	 * before the Buildings are updated. The flow fields are settled first,
+	 * as only this thread may extend them.
+	 * @param time, the time the first system starts, from the profiler.
+	 * @return long, the time the last system finished.
 	 */
-	private void updateSprites() {
-		for (Unit u: this.units) {
-			u.update(this);
+	private long updateSprites(long time) {
+		if (selected!=null) {
+			((Sprite)selected).update(this);
 		}
-		for (Building b: this.buildings) {
-			b.update(this);
-		}
-		for (Resource r: this.resources) {
-			r.update(this);
+		time=profiler.lap(TickProfiler.COMMANDS, time);
+		flowFields.settle(store);
+		unitPhase.run(this);
+		time=profiler.lap(TickProfiler.UNITS, time);
+		refileUnits();
+		time=profiler.lap(TickProfiler.REFILE, time);
+		TrainingSystem.updateBuildings(this);
+		time=profiler.lap(TickProfiler.TRAINING, time);
+		MiningSystem.retire(this);
+		time=profiler.lap(TickProfiler.MINES, time);
+		PylonSystem.update(this);
+		return profiler.lap(TickProfiler.PYLONS, time);
+	}
+	
+	/** prefetchMap method, asks the map to page in the tiles under the
+	 * camera and a chunk beyond on every side, so they are held before the
+	 * camera reaches them.
+	 */
+	private void prefetchMap() {
+		int margin=ChunkedGameMap.CHUNK_TILES;
+		map.prefetch((int)camera.getViewX()/TILE_SIZE-margin,
+				(int)camera.getViewY()/TILE_SIZE-margin,
+				App.WINDOW_WIDTH/TILE_SIZE+2*margin+1,
+				App.WINDOW_HEIGHT/TILE_SIZE+2*margin+1);
+	}
+
+	/** refileUnits method, moves every unit that has changed bucket since
+	 * the start of the update within the spatial hash.
+	 */
+	private void refileUnits() {
+		EntitySet units=store.units();
+		for (int id=units.next(0); id>=0; id=units.next(id+1)) {
+			store.views[id].refile(store.lastX[id], store.lastY[id]);
 		}
 	}
 	
+	/** savePositions method, records the position of every entity before it
+	 * is updated, so rendering can interpolate from it.
+	 */
+	private void savePositions() {
+		System.arraycopy(store.x, 0, store.lastX, 0, store.size());
+		System.arraycopy(store.y, 0, store.lastY, 0, store.size());
+	}
+	
 	/** Free Roam method used to send a message to the camera, indicating WASD
 	 * keys have been pressed and free roam is activated.
 	 */
@@ -172,78 +306,86 @@ public class World {
 	
 	/** getSelection method that deals with selection using input from the user.
 	 * This method ensures only one Sprite is ever selected, and handles over-
-	 * lapping instances.
+	 * lapping instances. Only the spatial hash buckets around the click are
+	 * searched.
 	 * @param input, input from the user.
 	 */
-	private void getSelection(Input input) {
+	private void getSelection(GameInput input) {
 		//If the left mouse button is clicked
 		if (input.isMousePressed(Input.MOUSE_LEFT_BUTTON)) {
 			//get the coordinates of that click
 			float clickX=(float) camera.screenXToGlobalX(input.getMouseX());
 			float clickY=(float) camera.screenYToGlobalY(input.getMouseY());
 			
-			//for all buildings
-			for (Building b: this.buildings) {
-				// if the click was close enough
-				if (Position.distance(b.getPosition(),clickX,clickY) <= 
-						Selectable.TOLERANCE) {
-					
-					//deselect the previously selected sprite
-					selected.deSelect();
-					
-					//select the building
-					b.select();
-					
-					//set selected to the building
-					selected=b;
-					
-					//stop searching
-					break;
-					
-				} else {
-					
-					//If were not close to the building, deselect it
-					b.deSelect();
+			//find the closest building and unit within reach of the click
+			Building building=null;
+			Unit unit=null;
+			double buildingDist=Double.MAX_VALUE;
+			double unitDist=Double.MAX_VALUE;
+			ArrayList<Sprite> near=queryRadius(clickX,clickY,Selectable.TOLERANCE);
+			for (int i=0; i<near.size(); i++) {
+				Sprite s=near.get(i);
+				int type=s.getEntityType();
+				double distance=Position.distance(s.getX(),s.getY(),clickX,clickY);
+				if (EntityStore.isUnit(type) && distance<unitDist) {
+					unit=(Unit)s;
+					unitDist=distance;
+				} else if (EntityStore.isBuilding(type) && distance<buildingDist) {
+					building=(Building)s;
+					buildingDist=distance;
 				}
 			}
 			
-			//for all units, after buildings, so that units take precedence.
-			for (Unit u: this.units) {
-				//if click was close enough
-				if (Position.distance(u.getPosition(),clickX,clickY) <=
-						Selectable.TOLERANCE) {
-					
-					//deselect the current selection
-					selected.deSelect();
-					//select the unit
-					u.select();
-					//set selected to the unit
-					selected=u;
-					
-					//stop searching
-					break;
-				} else {
-					//if not close enough, deselect it
-					u.deSelect();
-				}
+			//deselect the previously selected sprite
+			if (selected!=null) {
+				selected.deSelect();
+			}
+			
+			//units take precedence over buildings
+			if (unit!=null) {
+				unit.select();
+				selected=unit;
+			} else if (building!=null) {
+				building.select();
+				selected=building;
 			}
 		}
 	}
 	
 	/*------------------------- Render Helper Methods ------------------------*/
-	/** renderSprites method, loops through all arraylists of sprites and 
-	 * renders them in order.
+	/** renderSprites method, finds the sprites on screen from the spatial
+	 * hash, and renders the buildings, then resources, then units among them.
+	 * Sprites off screen are never touched, so the cost of rendering depends
+	 * on what is visible rather than on how many sprites exist. Each kind is
+	 * timed apart.
+	 * @param time, the time rendering starts, from the profiler.
+	 * @return long, the time the units finished rendering.
 	 */
-	private void renderSprites() {
-		for (Building b: this.buildings) {
-			b.render();
+	private long renderSprites(long time) {
+		float viewX=camera.getViewX();
+		float viewY=camera.getViewY();
+		grid.queryRect(viewX-CULL_MARGIN, viewY-CULL_MARGIN,
+				viewX+App.WINDOW_WIDTH+CULL_MARGIN,
+				viewY+App.WINDOW_HEIGHT+CULL_MARGIN, visible);
+		
+		for (int i=0; i<visible.size(); i++) {
+			if (EntityStore.isBuilding(visible.get(i).getEntityType())) {
+				visible.get(i).render();
+			}
 		}
-		for (Resource r: this.resources) {
-			r.render();
+		time=profiler.lap(TickProfiler.RENDER_BUILDINGS, time);
+		for (int i=0; i<visible.size(); i++) {
+			if (EntityStore.isResource(visible.get(i).getEntityType())) {
+				visible.get(i).render();
+			}
 		}
-		for (Unit units: this.units) {
-			units.render();
+		time=profiler.lap(TickProfiler.RENDER_RESOURCES, time);
+		for (int i=0; i<visible.size(); i++) {
+			if (EntityStore.isUnit(visible.get(i).getEntityType())) {
+				visible.get(i).render();
+			}
 		}
+		return profiler.lap(TickProfiler.RENDER_UNITS, time);
 	}
 	
 	/** Renders all text to the HUD, and additional text according to the 
@@ -258,68 +400,31 @@ public class World {
 		g.drawString(resources, 32, 32);
 		
 		//Draw string depending on type of selected sprite
-		if (selected instanceof CommandCentre) {
-			g.drawString(CMND_CNTR_STR, 32, 100);
-		} else if (selected instanceof Factory) {
-			g.drawString(FACTORY_STR, 32, 100);
-		} else if (selected instanceof Builder) {
-			g.drawString(BUILDER_STR, 32, 100);
-		} else if (selected instanceof Truck) {
-			g.drawString(TRUCK_STR,32,100);
-		} else if (selected instanceof Pylon) {
-			if (((Pylon) selected).isActive()) {
-				g.drawString(PYLON_STR_ACTIVE, 32, 100);
-			} else {
-				g.drawString(PYLON_STR_INACTIVE, 32, 100);
+		if (selected!=null) {
+			int id=((Sprite)selected).getId();
+			String text=HUD_STRINGS[store.type[id]];
+			if (store.type[id]==EntityStore.PYLON 
+					&& store.hasFlag(id, EntityStore.ACTIVE)) {
+				text=PYLON_STR_ACTIVE;
+			}
+			if (text!=null) {
+				g.drawString(text, 32, 100);
 			}
 		}
+		
+		//Phase times, beside the resource amounts
+		if (profiler.isOverlayVisible()) {
+			profiler.render(g, 320, 32);
+		}
 	}
 	
 	/*-------------------- Initialisation Helper Methods ---------------------*/
-	/** Method to load all Sprites from a CSV file
-	 * @param filename, the String storing the path to the CSV
+	/** Method to load all Sprites from an objects file, either a CSV or its
+	 * binary form. Bad lines are reported with their line number and skipped.
+	 * @param filename, the String storing the path to the file
 	 */
 	private void load(String filename) throws SlickException {
-		
-		try(BufferedReader br = new BufferedReader(new FileReader(filename))) {
-		
-    		String line;
-	    	while ((line = br.readLine()) != null) {
-	    		
-	    		//Array of words contains the split line that has been read
-	    		String words[] = line.split(CSV_SEPARATOR);
-	    		
-	    		//words[1] & words[2] correspond to the x & y coordinates
-	    		int xPos = Integer.parseInt(words[1]); 
-	    		int yPos = Integer.parseInt(words[2]);
-	    		
-	    		//words[0] corresponds to the name of the Sprite type to be created
-	    		switch (words[0]) {
-	    			case COMMAND_CNTR:
-	    				buildings.add(new CommandCentre(xPos,yPos,camera));
-	    				break;
-	    			case METAL:
-	    				resources.add(new Resource(xPos,yPos,camera,METAL));
-	    				break;
-	    			case UNOBTAINIUM:
-	    				resources.add(new Resource(xPos,yPos,camera,UNOBTAINIUM));
-	    				break;
-	    			case PYLON:
-	    				buildings.add(new Pylon(xPos,yPos,camera));
-	    				break;
-	    			case ENGINEER:
-	    				units.add(new Engineer(xPos,yPos,camera));
-	    				break;	
-	    		}
-	    		
-	    	
-	    	}
-	    
-	    } catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		new ObjectLoader().load(filename, this);
 	}
 	
 	/*------------------------- Map Property Methods -------------------------*/
@@ -346,9 +451,7 @@ public class World {
 	 * @return boolean indicating whether the move is allowed or not.
 	 */
 	public boolean isPositionFree(double x, double y) {
-		int tileId = map.getTileId(worldXToTileX(x), worldYToTileY(y), 0);
-		return !Boolean.parseBoolean(map.getTileProperty(tileId,
-				"solid", "false"));
+		return !passability.isSolid(worldXToTileX(x), worldYToTileY(y));
 	}
 	
 	/** Method used by Units that implement Trainable to determine whether 
@@ -358,14 +461,42 @@ public class World {
 	 * @return boolean indicating whether the construction is allowed or not.
 	 */
 	public boolean canBuildHere(Position p) {
-		int tileId = map.getTileId(worldXToTileX(p.getX()),
-				worldYToTileY(p.getY()), 0);
-		if (!Boolean.parseBoolean(map.getTileProperty(tileId,
-				"occupied", "false"))) {
-			return true;
-		} else {
-			return false;
-		}
+		return canBuildHere(p.getX(), p.getY());
+	}
+	
+	/** Method used by Units that implement Trainable to determine whether 
+	 * or not the coordinates they are attempting to build at are occupied.
+	 * @param x, x coordinate of attempted building
+	 * @param y, y coordiante of attempted building
+	 * @return boolean indicating whether the construction is allowed or not.
+	 */
+	public boolean canBuildHere(double x, double y) {
+		return !passability.isOccupied(worldXToTileX(x), worldYToTileY(y));
+	}
+	
+	/*--------------------------- Proximity Queries --------------------------*/
+	/** Radius query over every Sprite in the World, answered from the spatial
+	 * hash. The list returned is reused by the next query.
+	 * @param x, x coordinate of the centre of the query
+	 * @param y, y coordinate of the centre of the query
+	 * @param radius, distance from the centre to search
+	 * @return ArrayList of all Sprites within radius
+	 */
+	public ArrayList<Sprite> queryRadius(double x, double y, double radius) {
+		return grid.queryRadius(x, y, radius);
+	}
+	
+	/** Radius query into a caller's list, safe to make from several threads
+	 * during the unit phase.
+	 * @param x, x coordinate of the centre of the query
+	 * @param y, y coordinate of the centre of the query
+	 * @param radius, distance from the centre to search
+	 * @param results, the list to clear and fill
+	 * @return ArrayList results, holding all Sprites within radius
+	 */
+	public ArrayList<Sprite> queryRadius(double x, double y, double radius,
+			ArrayList<Sprite> results) {
+		return grid.queryRadius(x, y, radius, results);
 	}
 	
 	/*------------------------- Getters & Setters ----------------------------*/
@@ -374,27 +505,58 @@ public class World {
 	 * @return ArrayList of Resources
 	 */
 	public ArrayList<Resource> getResources() {
-		return resources;
+		return resources.list();
 	}
 	
 	/** Buildings getter.
 	 * @return ArrayList of Buildings
 	 */
 	public ArrayList<Building> getBuildings() {
-		return buildings;
+		return buildings.list();
 	}
 	
 	/** Units getter.
 	 * @return ArrayList of Units
 	 */
 	public ArrayList<Unit> getUnits() {
-		return units;
+		return units.list();
+	}
+	
+	/** Passability getter, the solid and occupied tiles of the map.
+	 * @return PassabilityMap decoded from the map.
+	 */
+	public PassabilityMap getPassability() {
+		return passability;
+	}
+	
+	/** Nearest Command Centre getter, answered from the centre index.
+	 * @param x, x coordinate in pixels.
+	 * @param y, y coordinate in pixels.
+	 * @return int entity id of the nearest centre, or -1 if there is none.
+	 */
+	public int nearestCentre(double x, double y) {
+		return centres.nearest(x, y);
+	}
+	
+	/** Flow field getter.
+	 * @param centreId, the entity id of a Command Centre.
+	 * @return FlowField toward the centre, or null if there is none.
+	 */
+	public FlowField getFlowField(int centreId) {
+		return flowFields.get(centreId);
+	}
+	
+	/** Entity store getter, used by the systems.
+	 * @return EntityStore holding every entity's state.
+	 */
+	public EntityStore getStore() {
+		return store;
 	}
 	
 	/** Input getter.
 	 * @return Input last recorded.
 	 */
-	public Input getInput() {
+	public GameInput getInput() {
 		return lastInput;
 	}
 	
@@ -405,15 +567,132 @@ public class World {
 		return lastDelta;
 	}
 	
+	/** Profiler getter.
+	 * @return TickProfiler timing each phase of the update and render.
+	 */
+	public TickProfiler getProfiler() {
+		return profiler;
+	}
+	
+	/** Camera getter.
+	 * @return Camera of the World.
+	 */
+	public Camera getCamera() {
+		return camera;
+	}
+	
+	/** Metal getter.
+	 * @return int amount of metal spendable by the Player
+	 */
+	public int getMetal() {
+		return metal;
+	}
+	
+	/** Unobtainium getter.
+	 * @return int amount of unobtainium the Player has acquired
+	 */
+	public int getUnobtainium() {
+		return unobtainium;
+	}
+	
+	/** Allowance getter, read by the mining system.
+	 * @return int amount of a Resource an Engineer carries at once
+	 */
+	public int getAllowance() {
+		return allowance;
+	}
+	
+	/** Allowance setter, used when restoring a saved game.
+	 * @param allowance, the amount of a Resource an Engineer carries at once.
+	 */
+	public void setAllowance(int allowance) {
+		this.allowance=allowance;
+	}
+	
+	/** Raises the allowance of every Engineer by one, when a Pylon is
+	 * activated.
+	 */
+	public void increaseAllowance() {
+		allowance++;
+	}
+	
+	/** Selects the first unit, if there is one, and centres the camera over
+	 * it. Called once the initial Sprites have been created.
+	 */
+	public void selectFirstUnit() {
+		if (!units.list().isEmpty()) {
+			selected=units.list().get(0);
+			camera.centerOn((Sprite)selected);
+		}
+	}
+	
+	/** Threads setter. Sets how many threads the unit phase runs on; the
+	 * result of an update is the same for any number.
+	 * @param threads, the number of threads, 1 to run on the caller's only.
+	 */
+	public void setThreads(int threads) {
+		unitPhase.shutdown();
+		unitPhase=new UnitPhase(threads);
+	}
+	
+	/** Stops the unit phase's threads, once the World is no longer needed.
+	 * The World must not be updated after.
+	 */
+	public void close() {
+		unitPhase.shutdown();
+	}
+	
+	/** State recorder setter. The state of the World is appended to the
+	 * recorder after every update.
+	 * @param recorder, the recorder, or null to stop recording.
+	 */
+	public void setStateRecorder(StateRecorder recorder) {
+		this.stateRecorder=recorder;
+	}
+	
+	/** Command buffer setter, called by the unit phase around each chunk so
+	 * that changes made by it are deferred.
+	 * @param buffer, the chunk's buffer, or null once it has finished.
+	 */
+	public void setCommandBuffer(CommandBuffer buffer) {
+		deferred.set(buffer);
+	}
+	
 	/** Essentially a compound setter. Increases metal or unobtainium,
-	 * depending on the input String.
+	 * depending on the input String. Deferred during the unit phase.
 	 * @param type, the String determining which Resource to increase
 	 */
 	public void resourceIncrease(String type) {
-		if (type.equals(METAL)) {
-			this.metal=this.metal + Engineer.allowance;
+		CommandBuffer buffer=deferred.get();
+		if (buffer!=null) {
+			buffer.addResource(type, allowance);
+		} else if (type.equals(METAL)) {
+			this.metal=this.metal + allowance;
 		} else {
-			this.unobtainium=this.unobtainium+Engineer.allowance;
+			this.unobtainium=this.unobtainium+allowance;
+		}
+	}
+	
+	/** Adds to both metal and unobtainium, used when merging the unit
+	 * phase's command buffers.
+	 * @param metal, the amount of metal to add.
+	 * @param unobtainium, the amount of unobtainium to add.
+	 */
+	public void addResources(int metal, int unobtainium) {
+		this.metal=this.metal+metal;
+		this.unobtainium=this.unobtainium+unobtainium;
+	}
+	
+	/** Takes an amount from a mine. Deferred during the unit phase.
+	 * @param r, the mine to deplete.
+	 * @param amount, the amount to take.
+	 */
+	public void depleteResource(Resource r, int amount) {
+		CommandBuffer buffer=deferred.get();
+		if (buffer!=null) {
+			buffer.deplete(r, amount);
+		} else {
+			r.deplete(amount);
 		}
 	}
 	
@@ -430,54 +709,148 @@ public class World {
 	}
 	
 	/*---------------------- Sprite Creation & Deletion -----------------------*/
-	/** Method to create a new Sprite and add to it's corresponding Arraylist.
+	/** Method to create a new Sprite, add it to it's corresponding Arraylist
+	 * and file it into the spatial hash. A destroyed Sprite of the type is
+	 * respawned if the pool keeps one. Deferred during the unit phase.
 	 * @param type, the String indicating which Sprite is being created
 	 * @param xPos, the x coordinate of it's initial position
 	 * @param yPos, the y coordinate of it's initial position
+	 * @return Sprite created, or null if deferred or the type is unknown
 	 */
-	public void createSprite(String type,float xPos,float yPos) 
+	public Sprite createSprite(String type,float xPos,float yPos) 
 			throws SlickException {
-		switch (type) {
-			case COMMAND_CNTR:
-				buildings.add(new CommandCentre(xPos,yPos,camera));
-				break;
-			case SCOUT:
-				units.add(new Scout(xPos,yPos,camera));
-				break;
-			case ENGINEER:
-				units.add(new Engineer(xPos,yPos,camera));
-				break;
-			case BUILDER:
-				units.add(new Builder(xPos,yPos,camera));
-				break;
-			case TRUCK:
-				units.add(new Truck(xPos,yPos,camera));
-				break;
-			case FACTORY:
-				buildings.add(new Factory(xPos,yPos,camera));
-				break;
+		CommandBuffer buffer=deferred.get();
+		if (buffer!=null) {
+			buffer.create(type, xPos, yPos);
+			return null;
+		}
+		int entityType=EntityStore.typeOf(type);
+		Sprite created=pool.obtain(entityType, xPos, yPos);
+		boolean pooled=created!=null;
+		if (!pooled) {
+			created=construct(type, xPos, yPos);
+		}
+		if (created==null) {
+			return null;
+		}
+		if (EntityStore.isUnit(entityType)) {
+			units.add((Unit)created);
+		} else if (EntityStore.isResource(entityType)) {
+			resources.add((Resource)created);
+		} else {
+			buildings.add((Building)created);
 		}
+		
+		//file the new sprite into the spatial hash
+		grid.insert(created);
+		created.setGrid(grid);
+		//index a new centre and build the flow field toward it
+		if (entityType==EntityStore.COMMAND_CNTR) {
+			centres.add(created);
+			flowFields.add(created);
+		}
+		SpriteCreatedEvent.emit(entityType, store.ofType(entityType).size(),
+				pooled);
+		return created;
 	}
 	
-	/** Method to add a Sprite that needs to be removed to an Arraylist cache,
-	 * that is emptied at the end of every world update.
+	/** Batch spawn, creates a number of Sprites of one type at once, making
+	 * room in the store for all of them first. Deferred during the unit
+	 * phase, one Sprite at a time.
+	 * @param type, the String indicating which Sprites are being created
+	 * @param xs, the x coordinates of their initial positions
+	 * @param ys, the y coordinates of their initial positions
+	 * @param count, the number of Sprites, read from the start of xs and ys
+	 */
+	public void spawn(String type, float[] xs, float[] ys, int count)
+			throws SlickException {
+		if (deferred.get()==null) {
+			store.reserve(count);
+		}
+		for (int i=0; i<count; i++) {
+			createSprite(type, xs[i], ys[i]);
+		}
+	}
+	
+	/** Method to queue a Sprite that needs to be removed, to be destroyed
+	 * at the end of the world update. A Sprite already queued or destroyed
+	 * is ignored. Deferred during the unit phase.
 	 * @param toRemove, the sprite to be destroyed.
 	 */
 	public void removeSprite(Sprite toRemove) {
-		this.toDestroy.add(toRemove);
+		CommandBuffer buffer=deferred.get();
+		if (buffer!=null) {
+			buffer.remove(toRemove);
+			return;
+		}
+		int id=toRemove.getId();
+		if (id<0 || store.hasFlag(id, EntityStore.REMOVING)) {
+			return;
+		}
+		store.setFlag(id, EntityStore.REMOVING, true);
+		toDestroy.offer(store.handle(id));
 	}
 
-	/** Method to actually destroy a sprite and free its memory
+	/** Method to actually destroy a sprite and free its memory. Its place
+	 * in its list is taken by the last of its kind, the selection and
+	 * camera let go of it, and it is kept in the pool to be respawned.
 	 * @param toRemove, the sprite to be destroyed.
 	 */
 	private void destroySprite(Sprite toRemove) {
+		grid.remove(toRemove);
+		toRemove.setGrid(null);
+		if (toRemove instanceof CommandCentre) {
+			centres.remove(toRemove);
+			flowFields.remove(toRemove);
+		}
 		if (toRemove instanceof Resource) {
-			this.resources.remove(toRemove);
-			this.resources.trimToSize();
-		} else if (toRemove instanceof Truck) {
-			this.units.remove(toRemove);
-			this.resources.trimToSize();
+			resources.remove(toRemove);
+		} else if (toRemove instanceof Unit) {
+			units.remove(toRemove);
+		} else if (toRemove instanceof Building) {
+			buildings.remove(toRemove);
+		}
+		if (selected==toRemove) {
+			selected.deSelect();
+			selected=null;
+		}
+		camera.release(toRemove);
+		toRemove.releaseImage();
+		store.destroy(toRemove.getId());
+		toRemove.detach();
+		pool.release(toRemove);
+		int type=toRemove.getEntityType();
+		SpriteDestroyedEvent.emit(type, store.ofType(type).size());
+	}
+	
+	/** Constructs a new Sprite of a type, when the pool keeps none.
+	 * @param type, the String indicating which Sprite is being created
+	 * @param xPos, the x coordinate of it's initial position
+	 * @param yPos, the y coordinate of it's initial position
+	 * @return Sprite constructed, or null if the type is unknown
+	 */
+	private Sprite construct(String type, float xPos, float yPos)
+			throws SlickException {
+		switch (type) {
+			case COMMAND_CNTR:
+				return new CommandCentre(xPos,yPos,camera,store);
+			case PYLON:
+				return new Pylon(xPos,yPos,camera,store);
+			case FACTORY:
+				return new Factory(xPos,yPos,camera,store);
+			case METAL:
+			case UNOBTAINIUM:
+				return new Resource(xPos,yPos,camera,store,type);
+			case SCOUT:
+				return new Scout(xPos,yPos,camera,store);
+			case ENGINEER:
+				return new Engineer(xPos,yPos,camera,store);
+			case BUILDER:
+				return new Builder(xPos,yPos,camera,store);
+			case TRUCK:
+				return new Truck(xPos,yPos,camera,store);
 		}
+		return null;
 	}
 	
 	/*-------------------------------------------------------------------------*/